@@ -1,9 +1,14 @@
 package com.example.InventoryService.config;
 
+import com.example.InventoryService.event.InventoryLevelEvent;
 import com.example.InventoryService.event.OrderCancelledEvent;
+import com.example.InventoryService.event.OrderEvent;
 import com.example.InventoryService.event.PaymentFailedEvent;
 import com.example.InventoryService.event.StockReleasedEvent;
 import com.example.InventoryService.event.StockReservedEvent;
+import com.example.InventoryService.event.StockRestockedEvent;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -12,7 +17,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -22,23 +30,72 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
 
+    @Value("${inventory.kafka.transactions.enabled:false}")
+    private boolean transactionsEnabled;
+
+    @Value("${inventory.kafka.transactions.id-prefix:inventory-tx-}")
+    private String transactionIdPrefix;
+
+    /**
+     * Saga event'lerinin hepsi aynı producer factory'den gönderilir; transactional modda
+     * container'ın başlattığı Kafka transaction'ı tek bir producer'a bağlandığı için
+     * stock-reserved, order-cancelled ve stock-released gönderimleri offset'lerle birlikte commit edilir.
+     */
     @Bean
-    public ProducerFactory<String, StockReservedEvent> stockReservedProducerFactory() {
+    public ProducerFactory<String, Object> sagaProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+        if (transactionsEnabled) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> ProducerFactory<String, V> sagaProducerFactory(Class<V> type) {
+        return (ProducerFactory<String, V>) (ProducerFactory<String, ?>) sagaProducerFactory();
     }
 
     @Bean
     public KafkaTemplate<String, StockReservedEvent> stockReservedKafkaTemplate() {
-        return new KafkaTemplate<>(stockReservedProducerFactory());
+        return new KafkaTemplate<>(sagaProducerFactory(StockReservedEvent.class));
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderCancelledEvent> orderCancelledKafkaTemplate() {
+        return new KafkaTemplate<>(sagaProducerFactory(OrderCancelledEvent.class));
+    }
+
+    @Bean
+    public KafkaTemplate<String, StockReleasedEvent> stockReleasedKafkaTemplate() {
+        return new KafkaTemplate<>(sagaProducerFactory(StockReleasedEvent.class));
+    }
+
+    private KafkaTransactionManager<String, Object> kafkaTransactionManager;
+
+    /**
+     * Bean olarak tanımlanmaz; aksi halde JPA transaction manager'ının otomatik konfigürasyonu devre dışı kalır.
+     * Listener'lardaki @Transactional JPA transaction'ını, container ise onu saran Kafka transaction'ını yönetir.
+     */
+    private KafkaTransactionManager<String, Object> kafkaTransactionManager() {
+        if (kafkaTransactionManager == null) {
+            kafkaTransactionManager = new KafkaTransactionManager<>(sagaProducerFactory());
+        }
+        return kafkaTransactionManager;
+    }
+
+    private void configureTransactions(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        if (transactionsEnabled) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(kafkaTransactionManager());
+        }
     }
 
     @Bean
-    public ProducerFactory<String, OrderCancelledEvent> orderCancelledProducerFactory() {
+    public ProducerFactory<String, StockRestockedEvent> stockRestockedProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -48,33 +105,52 @@ public class KafkaConfig {
     }
 
     @Bean
-    public KafkaTemplate<String, OrderCancelledEvent> orderCancelledKafkaTemplate() {
-        return new KafkaTemplate<>(orderCancelledProducerFactory());
+    public KafkaTemplate<String, StockRestockedEvent> stockRestockedKafkaTemplate() {
+        return new KafkaTemplate<>(stockRestockedProducerFactory());
     }
 
     @Bean
-    public ProducerFactory<String, StockReleasedEvent> stockReleasedProducerFactory() {
+    public ProducerFactory<String, InventoryLevelEvent> inventoryLevelProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 20);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean
-    public KafkaTemplate<String, StockReleasedEvent> stockReleasedKafkaTemplate() {
-        return new KafkaTemplate<>(stockReleasedProducerFactory());
+    public KafkaTemplate<String, InventoryLevelEvent> inventoryLevelKafkaTemplate() {
+        return new KafkaTemplate<>(inventoryLevelProducerFactory());
+    }
+
+    @Bean
+    public NewTopic inventoryLevelsTopic() {
+        return TopicBuilder.name("inventory-levels")
+                .partitions(3)
+                .compact()
+                .build();
     }
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${inventory.order-placed.batch.max-records:500}")
+    private int orderPlacedBatchMaxRecords;
+
+    @Value("${inventory.order-placed.batch.max-wait-ms:100}")
+    private int orderPlacedBatchMaxWaitMs;
+
+    @Value("${inventory.order-placed.batch.min-bytes:16384}")
+    private int orderPlacedBatchMinBytes;
+
     @Bean
     public ConsumerFactory<String, PaymentFailedEvent> paymentFailedConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -82,12 +158,113 @@ public class KafkaConfig {
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
+    @Value("${inventory.compensation.concurrency:3}")
+    private int compensationConcurrency;
+
+    /**
+     * Telafi event'leri order-placed'den ayrı, kendi consumer thread'leriyle işlenir;
+     * order-placed birikimi payment-failed'i bekletmez.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, PaymentFailedEvent> paymentFailedKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, PaymentFailedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(paymentFailedConsumerFactory());
+        factory.setConcurrency(compensationConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        configureTransactions(factory);
         return factory;
     }
-}
 
+    @Bean
+    public ConsumerFactory<String, OrderEvent> orderPlacedConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(orderPlacedConsumerProps());
+    }
+
+    /**
+     * Batch boyutu max.poll.records ile, bekleme süresi fetch.min.bytes / fetch.max.wait.ms ile sınırlanır;
+     * transactional modda her poll batch'i tek bir Kafka transaction'ında commit edilir. Bu fetch
+     * ayarları yalnızca batch listener'a uygulanır, tek kayıtlık listener'a gecikme eklemez.
+     */
+    @Bean
+    public ConsumerFactory<String, OrderEvent> orderPlacedBatchConsumerFactory() {
+        Map<String, Object> configProps = orderPlacedConsumerProps();
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, orderPlacedBatchMaxRecords);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, orderPlacedBatchMaxWaitMs);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, orderPlacedBatchMinBytes);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    private Map<String, Object> orderPlacedConsumerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.example.InventoryService.event.OrderEvent");
+        return configProps;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderPlacedBatchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderPlacedBatchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        configureTransactions(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderPlacedKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderPlacedConsumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        configureTransactions(factory);
+        return factory;
+    }
+
+    /**
+     * inventory.listeners.shared.enabled açıkken order-placed ve payment-failed tek bir consumer ile
+     * okunur; değer tipi kaydın geldiği topic'e göre seçilir.
+     */
+    static final Map<String, Class<?>> SAGA_TOPIC_TYPES = Map.of(
+            "order-placed", OrderEvent.class,
+            "payment-failed", PaymentFailedEvent.class);
+
+    @Value("${inventory.listeners.shared.concurrency:3}")
+    private int sharedConcurrency;
+
+    @Bean
+    public ConsumerFactory<String, Object> sagaConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        JsonDeserializer<Object> valueDeserializer = new JsonDeserializer<>();
+        valueDeserializer.setUseTypeHeaders(false);
+        valueDeserializer.setTypeResolver((topic, data, headers) -> {
+            Class<?> type = SAGA_TOPIC_TYPES.get(topic);
+            if (type == null) {
+                throw new IllegalStateException("Topic için event tipi tanımlı değil: " + topic);
+            }
+            return TypeFactory.defaultInstance().constructType(type);
+        });
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), valueDeserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> sagaKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(sagaConsumerFactory());
+        factory.setConcurrency(sharedConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        configureTransactions(factory);
+        return factory;
+    }
+}
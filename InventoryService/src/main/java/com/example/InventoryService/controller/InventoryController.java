@@ -1,12 +1,22 @@
 package com.example.InventoryService.controller;
 
+import com.example.InventoryService.dto.BulkCreateSummary;
+import com.example.InventoryService.dto.RestockSummary;
 import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.entity.StockMovement;
 import com.example.InventoryService.service.InventoryService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/inventory")
 @Slf4j
@@ -24,6 +34,86 @@ public class InventoryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BulkCreateSummary> createInventories(@RequestBody List<Inventory> inventories) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createInventories(inventories));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<Long, Integer>> getAvailableStocks(@RequestParam("productIds") List<Long> productIds) {
+        try {
+            return ResponseEntity.ok(inventoryService.getAvailableStocks(productIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/restock", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<RestockSummary> restockStream(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        return ResponseEntity.ok(inventoryService.restockStream(body, csv));
+    }
+
+    @GetMapping("/product/{productId}/stock")
+    public ResponseEntity<Integer> getAvailableStock(@PathVariable("productId") Long productId) {
+        Integer stock = inventoryService.getAvailableStock(productId);
+        return stock == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(stock);
+    }
+
+    @PostMapping("/product/{productId}/restock")
+    public ResponseEntity<Void> restock(@PathVariable("productId") Long productId,
+                                        @RequestParam("quantity") int quantity) {
+        try {
+            return inventoryService.restock(productId, quantity)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/product/{productId}/movements")
+    public ResponseEntity<List<StockMovement>> getMovementsByProductId(@PathVariable("productId") Long productId) {
+        return ResponseEntity.ok(inventoryService.getMovementsByProductId(productId));
+    }
+
+    @GetMapping("/movements/order/{orderId}")
+    public ResponseEntity<List<StockMovement>> getMovementsByOrderId(@PathVariable("orderId") Long orderId) {
+        return ResponseEntity.ok(inventoryService.getMovementsByOrderId(orderId));
+    }
+
+    @PostMapping("/product/{productId}/buckets")
+    public ResponseEntity<Void> splitStock(@PathVariable("productId") Long productId,
+                                           @RequestParam(value = "count", defaultValue = "8") int count) {
+        try {
+            inventoryService.splitStock(productId, count);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/product/{productId}/buckets")
+    public ResponseEntity<Void> mergeStock(@PathVariable("productId") Long productId) {
+        try {
+            inventoryService.mergeStock(productId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/product/{productId}")
     public ResponseEntity<Void> deleteInventoryByProductId(@PathVariable("productId") Long productId) {
         return ResponseEntity.noContent().build();
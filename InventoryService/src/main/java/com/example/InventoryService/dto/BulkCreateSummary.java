@@ -0,0 +1,11 @@
+package com.example.InventoryService.dto;
+
+import java.util.List;
+
+/**
+ * Toplu stok kaydı oluşturmanın sonucu; zaten kaydı olan ürünler skipped listesinde döner.
+ */
+public record BulkCreateSummary(
+        int created,
+        List<Long> skipped
+) {}
@@ -0,0 +1,6 @@
+package com.example.InventoryService.dto;
+
+public record RestockLine(
+        Long productId,
+        Integer quantity
+) {}
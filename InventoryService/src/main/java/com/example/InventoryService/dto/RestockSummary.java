@@ -0,0 +1,12 @@
+package com.example.InventoryService.dto;
+
+/**
+ * Toplu stok girişinin sonucu: okunan satır, uygulanan ürün, kaydı bulunmayan ve
+ * geçersiz olduğu için atlanan satır sayıları.
+ */
+public record RestockSummary(
+        long lines,
+        long applied,
+        long notFound,
+        long rejected
+) {}
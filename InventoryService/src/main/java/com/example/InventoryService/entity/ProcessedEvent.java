@@ -0,0 +1,71 @@
+package com.example.InventoryService.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import com.example.InventoryService.enums.EventOutcome;
+
+import java.time.LocalDateTime;
+
+/**
+ * İşlenmiş event kaydı; (topic, orderId) birincil anahtar olduğu için aynı event ikinci kez yazılamaz.
+ */
+@Entity
+@Table(name = "processed_event", indexes = {
+        @Index(name = "idx_processed_event_processed_at", columnList = "processedAt")
+})
+public class ProcessedEvent {
+
+    @EmbeddedId
+    private ProcessedEventId id;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private EventOutcome outcome;
+
+    @Column(length = 512)
+    private String reason;
+
+    public ProcessedEvent() {
+    }
+
+    public ProcessedEventId getId() {
+        return id;
+    }
+
+    public void setId(ProcessedEventId id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public EventOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(EventOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
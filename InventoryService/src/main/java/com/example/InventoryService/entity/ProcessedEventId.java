@@ -0,0 +1,49 @@
+package com.example.InventoryService.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ProcessedEventId implements Serializable {
+
+    @Column(nullable = false, length = 64)
+    private String topic;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    public ProcessedEventId() {
+    }
+
+    public ProcessedEventId(String topic, Long orderId) {
+        this.topic = topic;
+        this.orderId = orderId;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProcessedEventId that)) {
+            return false;
+        }
+        return Objects.equals(topic, that.topic) && Objects.equals(orderId, that.orderId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(topic, orderId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.InventoryService.enums;
+
+public enum EventOutcome {
+    RESERVED,
+    CANCELLED,
+    RELEASED
+}
@@ -0,0 +1,7 @@
+package com.example.InventoryService.enums;
+
+public enum MovementType {
+    RESERVATION,
+    RELEASE,
+    RESTOCK
+}
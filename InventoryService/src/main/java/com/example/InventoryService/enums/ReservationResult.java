@@ -0,0 +1,7 @@
+package com.example.InventoryService.enums;
+
+public enum ReservationResult {
+    RESERVED,
+    INSUFFICIENT_STOCK,
+    NOT_FOUND
+}
@@ -0,0 +1,9 @@
+package com.example.InventoryService.event;
+
+import java.time.Instant;
+
+public record InventoryLevelEvent(
+        Long productId,
+        Integer available,
+        Instant updatedAt
+) {}
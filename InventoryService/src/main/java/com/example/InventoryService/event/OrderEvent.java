@@ -1,11 +1,24 @@
 package com.example.InventoryService.event;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record OrderEvent(
         Long orderId,
         Long productId,
         Integer quantity,
         BigDecimal totalPrice,
-        String customerEmail
-) {}
+        String customerEmail,
+        List<OrderItem> items
+) {
+
+    /**
+     * Sipariş satırları; items taşımayan eski event'lerde tek satır productId/quantity'den üretilir.
+     */
+    public List<OrderItem> lines() {
+        if (items != null && !items.isEmpty()) {
+            return items;
+        }
+        return List.of(new OrderItem(productId, quantity));
+    }
+}
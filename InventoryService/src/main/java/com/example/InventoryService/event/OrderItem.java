@@ -0,0 +1,6 @@
+package com.example.InventoryService.event;
+
+public record OrderItem(
+        Long productId,
+        Integer quantity
+) {}
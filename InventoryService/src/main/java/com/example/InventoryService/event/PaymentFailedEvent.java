@@ -1,9 +1,20 @@
 package com.example.InventoryService.event;
 
+import java.util.List;
+
 public record PaymentFailedEvent(
         Long orderId,
         Long productId,
         Integer quantity,
         String paymentId,
-        String reason
-) {}
+        String reason,
+        List<OrderItem> items
+) {
+
+    public List<OrderItem> lines() {
+        if (items != null && !items.isEmpty()) {
+            return items;
+        }
+        return List.of(new OrderItem(productId, quantity));
+    }
+}
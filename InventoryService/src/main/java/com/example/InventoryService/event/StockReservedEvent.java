@@ -1,11 +1,13 @@
 package com.example.InventoryService.event;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record StockReservedEvent(
         Long orderId,
         Long productId,
         Integer quantity,
         BigDecimal totalPrice,
-        String customerEmail
+        String customerEmail,
+        List<OrderItem> items
 ) {}
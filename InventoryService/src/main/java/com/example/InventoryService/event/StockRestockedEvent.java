@@ -0,0 +1,6 @@
+package com.example.InventoryService.event;
+
+public record StockRestockedEvent(
+        Long productId,
+        Integer quantity
+) {}
@@ -0,0 +1,12 @@
+package com.example.InventoryService.hotsku;
+
+/**
+ * Pencere içindeki tahmini talep. estimatedCount en fazla maxError kadar fazla sayılmış olabilir.
+ */
+public record HotSku(
+        long productId,
+        long estimatedCount,
+        long maxError,
+        double ratePerSecond,
+        double failureRatio
+) {}
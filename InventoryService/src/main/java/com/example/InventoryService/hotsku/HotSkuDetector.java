@@ -0,0 +1,155 @@
+package com.example.InventoryService.hotsku;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Rezervasyon talebi en yüksek ürünleri sabit bellekle izler. İki Space-Saving sketch'i dönüşümlü
+ * pencere olarak kullanılır: biri o anki pencereyi sayar, diğeri bir önceki tam pencereyi tutar;
+ * raporlar ikisinin toplamından, yani son 1-2 pencereden hesaplanır.
+ *
+ * Her kaydeden thread kendi sketch çiftine yazar; listener thread'leri ortak bir monitörde
+ * sıralanmaz. Thread'in kilidini yalnızca rapor okurken kısa süre alan okuyucu paylaşır, bu yüzden
+ * kayıt yolundaki kilit pratikte yarışmasızdır ve nesne oluşturmaz. Pencereler tüm thread'ler için
+ * aynı saat dilimlerine bağlıdır; rapor, thread'lerin sketch'leri toplanarak oluşturulur ve
+ * gauge'lar ayrı bir snapshot üzerinden okunur.
+ */
+@Component
+public class HotSkuDetector {
+
+    private final long windowNanos;
+    private final int top;
+    private final long origin = System.nanoTime();
+    private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Recorder> localRecorder;
+    private volatile List<HotSku> lastSnapshot = List.of();
+
+    public HotSkuDetector(MeterRegistry meterRegistry,
+                          @Value("${inventory.hotsku.capacity:100}") int capacity,
+                          @Value("${inventory.hotsku.top:10}") int top,
+                          @Value("${inventory.hotsku.window-seconds:60}") int windowSeconds) {
+        this.windowNanos = windowSeconds * 1_000_000_000L;
+        this.top = top;
+        this.localRecorder = ThreadLocal.withInitial(() -> {
+            Recorder recorder = new Recorder(capacity, windowOf(System.nanoTime()));
+            recorders.add(recorder);
+            return recorder;
+        });
+        for (int rank = 0; rank < top; rank++) {
+            registerRankGauge(meterRegistry, "inventory.hotsku.product", rank, HotSku::productId);
+            registerRankGauge(meterRegistry, "inventory.hotsku.rate", rank, HotSku::ratePerSecond);
+            registerRankGauge(meterRegistry, "inventory.hotsku.failure.ratio", rank, HotSku::failureRatio);
+        }
+    }
+
+    private void registerRankGauge(MeterRegistry meterRegistry, String name, int rank,
+                                   ToDoubleFunction<HotSku> value) {
+        Gauge.builder(name, this, detector -> {
+                    List<HotSku> snapshot = detector.lastSnapshot;
+                    return rank < snapshot.size() ? value.applyAsDouble(snapshot.get(rank)) : Double.NaN;
+                })
+                .tag("rank", String.valueOf(rank + 1))
+                .register(meterRegistry);
+    }
+
+    public void record(long productId, boolean failed) {
+        Recorder recorder = localRecorder.get();
+        long window = windowOf(System.nanoTime());
+        synchronized (recorder) {
+            recorder.rotate(window);
+            recorder.current.record(productId, failed);
+        }
+    }
+
+    /**
+     * Son pencerelerin en çok talep gören ürünleri, tahmini sayaca göre azalan sırada. Aynı ürün
+     * birden fazla sketch'te geçiyorsa sayaçları, hata payları ve başarısızlıkları toplanır.
+     */
+    public List<HotSku> topK() {
+        long now = System.nanoTime();
+        long window = windowOf(now);
+        long inWindow = now - origin - window * windowNanos;
+        double elapsedSeconds = Math.max(1e-3, (inWindow + (window > 0 ? windowNanos : 0)) / 1e9);
+
+        Map<Long, long[]> merged = new HashMap<>();
+        for (Recorder recorder : recorders) {
+            synchronized (recorder) {
+                recorder.rotate(window);
+                merge(merged, recorder.current);
+                merge(merged, recorder.previous);
+            }
+        }
+
+        List<HotSku> result = new ArrayList<>(merged.size());
+        merged.forEach((productId, totals) ->
+                result.add(estimate(productId, totals[0], totals[1], totals[2], elapsedSeconds)));
+        result.sort(Comparator.comparingLong(HotSku::estimatedCount).reversed());
+        return result.size() > top ? List.copyOf(result.subList(0, top)) : result;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hotsku.gauge-refresh-ms:5000}")
+    public void refreshGauges() {
+        lastSnapshot = topK();
+    }
+
+    private static HotSku estimate(long productId, long count, long error, long failures, double elapsedSeconds) {
+        return new HotSku(productId, count, error, count / elapsedSeconds,
+                count == 0 ? 0 : (double) failures / count);
+    }
+
+    private long windowOf(long now) {
+        return (now - origin) / windowNanos;
+    }
+
+    private static void merge(Map<Long, long[]> merged, SpaceSaving sketch) {
+        for (int slot = 0; slot < sketch.size(); slot++) {
+            long[] totals = merged.computeIfAbsent(sketch.productId(slot), productId -> new long[3]);
+            totals[0] += sketch.count(slot);
+            totals[1] += sketch.error(slot);
+            totals[2] += sketch.failures(slot);
+        }
+    }
+
+    /**
+     * Tek bir thread'in sketch çifti; kendi monitörüyle korunur.
+     */
+    private static final class Recorder {
+        private SpaceSaving current;
+        private SpaceSaving previous;
+        private long window;
+
+        private Recorder(int capacity, long window) {
+            this.current = new SpaceSaving(capacity);
+            this.previous = new SpaceSaving(capacity);
+            this.window = window;
+        }
+
+        private void rotate(long now) {
+            if (now == window) {
+                return;
+            }
+            SpaceSaving recycled = previous;
+            if (now == window + 1) {
+                previous = current;
+            } else {
+                // Bir pencereden uzun süre kayıt gelmediyse önceki pencere de eskimiştir.
+                current.clear();
+                previous = current;
+            }
+            recycled.clear();
+            current = recycled;
+            window = now;
+        }
+    }
+}
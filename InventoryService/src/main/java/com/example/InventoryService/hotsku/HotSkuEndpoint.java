@@ -0,0 +1,23 @@
+package com.example.InventoryService.hotsku;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "hotskus")
+public class HotSkuEndpoint {
+
+    private final HotSkuDetector hotSkuDetector;
+
+    public HotSkuEndpoint(HotSkuDetector hotSkuDetector) {
+        this.hotSkuDetector = hotSkuDetector;
+    }
+
+    @ReadOperation
+    public List<HotSku> hotSkus() {
+        return hotSkuDetector.topK();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.InventoryService.hotsku;
+
+import com.example.InventoryService.stock.LongIntHashMap;
+
+/**
+ * Space-Saving heavy-hitters sketch: en fazla capacity ürün izlenir, yeni ürün geldiğinde en
+ * düşük sayaçlı ürünün yerini alır ve onun sayacını hata payı olarak devralır. Sayaçlar
+ * min-heap'te tutulur; kayıt başına maliyet O(log capacity) ve yeni nesne oluşturulmaz.
+ * Thread-safe değildir.
+ */
+final class SpaceSaving {
+
+    private static final int MISSING = -1;
+
+    private final int capacity;
+    private final LongIntHashMap slots;
+    private final long[] productIds;
+    private final long[] counts;
+    private final long[] errors;
+    private final long[] failures;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.slots = new LongIntHashMap(capacity, MISSING);
+        this.productIds = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.failures = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+    }
+
+    void record(long productId, boolean failed) {
+        int slot = slots.get(productId);
+        if (slot == MISSING && size < capacity) {
+            slot = size;
+            productIds[slot] = productId;
+            counts[slot] = 1;
+            errors[slot] = 0;
+            failures[slot] = failed ? 1 : 0;
+            slots.put(productId, slot);
+            heap[size] = slot;
+            heapIndex[slot] = size;
+            size++;
+            siftUp(heapIndex[slot]);
+            return;
+        }
+        if (slot == MISSING) {
+            slot = heap[0];
+            slots.remove(productIds[slot]);
+            errors[slot] = counts[slot];
+            productIds[slot] = productId;
+            failures[slot] = 0;
+            slots.put(productId, slot);
+        }
+        counts[slot]++;
+        if (failed) {
+            failures[slot]++;
+        }
+        siftDown(heapIndex[slot]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long productId(int slot) {
+        return productIds[slot];
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    long error(int slot) {
+        return errors[slot];
+    }
+
+    long failures(int slot) {
+        return failures[slot];
+    }
+
+    /**
+     * Ürünün bu penceredeki tahmini sayacı; izlenmiyorsa 0.
+     */
+    long countOf(long productId) {
+        int slot = slots.get(productId);
+        return slot == MISSING ? 0 : counts[slot];
+    }
+
+    long failuresOf(long productId) {
+        int slot = slots.get(productId);
+        return slot == MISSING ? 0 : failures[slot];
+    }
+
+    void clear() {
+        slots.clear();
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[i]]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < size && counts[heap[right]] < counts[heap[left]] ? right : left;
+            if (counts[heap[i]] <= counts[heap[smallest]]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int slotA = heap[a];
+        int slotB = heap[b];
+        heap[a] = slotB;
+        heap[b] = slotA;
+        heapIndex[slotB] = a;
+        heapIndex[slotA] = b;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.InventoryService.idempotency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * (topic, orderId) anahtarları için sabit boyutlu Bloom filtresi. "Yok" cevabı kesindir,
+ * "var" cevabı fpp olasılıkla yanlış olabilir. Bitler AtomicLongArray üzerinde CAS ile set
+ * edildiği için kilitsiz okunup yazılabilir.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double fpp) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    void put(String topic, long orderId) {
+        long h1 = hash(topic, orderId, 0x9E3779B97F4A7C15L);
+        long h2 = hash(topic, orderId, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String topic, long orderId) {
+        long h1 = hash(topic, orderId, 0x9E3779B97F4A7C15L);
+        long h2 = hash(topic, orderId, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String topic, long orderId, long seed) {
+        long h = seed ^ topic.hashCode();
+        h = mix(h ^ orderId);
+        return mix(h + seed);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
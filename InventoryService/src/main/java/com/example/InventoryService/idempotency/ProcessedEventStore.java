@@ -0,0 +1,224 @@
+package com.example.InventoryService.idempotency;
+
+import com.example.InventoryService.enums.EventOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Listener'ların işlediği event'leri (topic, orderId) anahtarıyla processed_event tablosunda tutar.
+ * Önünde son işlenen anahtarlar için sınırlı bir LRU cache ve tüm saklama süresini kapsayan bir
+ * Bloom filtresi vardır: hiç görülmemiş event, ki normal durum budur, ek sorgu yapılmadan geçer.
+ * Asıl garanti record() içindeki INSERT ... ON CONFLICT DO NOTHING'dir; cache ve filtre yalnızca
+ * commit sonrası güncellenir, böylece rollback olan bir işlem anahtarı "görülmüş" bırakmaz.
+ */
+@Component
+public class ProcessedEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventStore.class);
+
+    private static final String INSERT =
+            "insert into processed_event (topic, order_id, processed_at) values (?, ?, now()) " +
+            "on conflict (topic, order_id) do nothing";
+
+    private static final String EXISTS =
+            "select count(*) from processed_event where topic = ? and order_id = ?";
+
+    private static final String SAVE_OUTCOME =
+            "update processed_event set outcome = ?, reason = ? where topic = ? and order_id = ?";
+
+    private static final String FIND_OUTCOME =
+            "select outcome, reason from processed_event where topic = ? and order_id = ? and outcome is not null";
+
+    private static final String LOAD_RECENT =
+            "select topic, order_id from processed_event where processed_at > ?";
+
+    private static final String PURGE =
+            "delete from processed_event where processed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration retention;
+    private final Map<Key, Boolean> recent;
+    private volatile BloomFilter bloomFilter;
+
+    private final Counter cacheHits;
+    private final Counter bloomMisses;
+    private final Counter databaseHits;
+    private final Counter falsePositives;
+
+    public ProcessedEventStore(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.idempotency.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${inventory.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${inventory.idempotency.recent-cache-size:10000}") int recentCacheSize,
+                               @Value("${inventory.idempotency.retention-days:7}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retention = Duration.ofDays(retentionDays);
+        this.recent = new LinkedHashMap<>(recentCacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > recentCacheSize;
+            }
+        };
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.cacheHits = lookupCounter(meterRegistry, "cache_hit");
+        this.bloomMisses = lookupCounter(meterRegistry, "bloom_miss");
+        this.databaseHits = lookupCounter(meterRegistry, "db_hit");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("inventory.idempotency.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        bloomFilter = rebuild();
+    }
+
+    /**
+     * Event daha önce işlendiyse true. Bloom filtresi "yok" diyorsa veritabanına gidilmez.
+     */
+    public boolean seen(String topic, Long orderId) {
+        Key key = new Key(topic, orderId);
+        synchronized (recent) {
+            if (recent.containsKey(key)) {
+                cacheHits.increment();
+                return true;
+            }
+        }
+        if (!bloomFilter.mightContain(topic, orderId)) {
+            bloomMisses.increment();
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(EXISTS, Integer.class, topic, orderId);
+        if (count != null && count > 0) {
+            databaseHits.increment();
+            remember(key);
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Event'i işlenmiş olarak yazar; çağıranın transaction'ına katılır. Kayıt zaten varsa
+     * (eşzamanlı ikinci teslimat) false döner.
+     */
+    public boolean record(String topic, Long orderId) {
+        boolean inserted = jdbcTemplate.update(INSERT, topic, orderId) == 1;
+        Key key = new Key(topic, orderId);
+        afterCommit(() -> remember(key));
+        return inserted;
+    }
+
+    /**
+     * Birden fazla event'i (topic, orderId) satırlarıyla tek batch'te işlenmiş olarak yazar;
+     * çağıranın transaction'ına katılır. Zaten kayıtlı olanlar atlanır.
+     */
+    public void recordAll(List<Object[]> keys) {
+        jdbcTemplate.batchUpdate(INSERT, keys);
+        afterCommit(() -> keys.forEach(key -> remember(new Key((String) key[0], (Long) key[1]))));
+    }
+
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * İşlemin sonucunu kayda ekler. Transactional Kafka modunda DB commit'i ile Kafka commit'i
+     * arasında çökülürse tekrar gelen event'in gönderimleri bu sonuçtan yeniden üretilir.
+     */
+    public void saveOutcome(String topic, Long orderId, EventOutcome outcome, String reason) {
+        jdbcTemplate.update(SAVE_OUTCOME, outcome.name(), reason, topic, orderId);
+    }
+
+    public Optional<StoredOutcome> findOutcome(String topic, Long orderId) {
+        return jdbcTemplate.query(FIND_OUTCOME,
+                (rs, rowNum) -> new StoredOutcome(EventOutcome.valueOf(rs.getString(1)), rs.getString(2)),
+                topic, orderId).stream().findFirst();
+    }
+
+    /**
+     * Yazma henüz kalıcı olmadan (write-behind) anahtarı bellekte işaretler; aynı instance'a gelen
+     * tekrarlar flush beklenmeden yakalanır.
+     */
+    public void markInMemory(String topic, Long orderId) {
+        remember(new Key(topic, orderId));
+    }
+
+    /**
+     * Bellekteki işareti kaldırır. Bloom filtresinden silme yapılamaz; sonraki sorgu
+     * veritabanına düşer ve kayıt yoksa yanlış pozitif sayılır.
+     */
+    public void forget(String topic, Long orderId) {
+        synchronized (recent) {
+            recent.remove(new Key(topic, orderId));
+        }
+    }
+
+    private void remember(Key key) {
+        bloomFilter.put(key.topic(), key.orderId());
+        synchronized (recent) {
+            recent.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Saklama süresi dolan kayıtları siler ve filtreyi kalan kayıtlardan yeniden kurar;
+     * aksi halde filtre doldukça yanlış pozitif oranı artar.
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:3600000}",
+            initialDelayString = "${inventory.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = jdbcTemplate.update(PURGE, LocalDateTime.now().minus(retention));
+        bloomFilter = rebuild();
+        log.info("İşlenmiş event kayıtları temizlendi: silinen={}", deleted);
+    }
+
+    private BloomFilter rebuild() {
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        jdbcTemplate.query(LOAD_RECENT,
+                rs -> {
+                    filter.put(rs.getString(1), rs.getLong(2));
+                },
+                LocalDateTime.now().minus(retention));
+        return filter;
+    }
+
+    public record StoredOutcome(EventOutcome outcome, String reason) {
+    }
+
+    private record Key(String topic, Long orderId) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.InventoryService.rebuild;
+
+import com.example.InventoryService.event.OrderItem;
+import com.example.InventoryService.stock.LongIntHashMap;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Yedekten dönülen inventory tablosuna, yedekten sonra Kafka'ya yazılmış stok değişikliklerini uygular.
+ * stock-reserved (-), stock-released (+) ve stock-restocked (+) topic'leri verilen zamandan ya da
+ * offset'lerden itibaren, başlangıçtaki son offset'e kadar partition başına ayrı bir consumer ile
+ * paralel okunur. Her event bellekte ürün bazlı farka katlanır ve sonuçlar productId sırasıyla
+ * toplu upsert ile yazılır. Saga event'i gönderilmez ve listener'lar bu profilde başlatılmaz.
+ *
+ * Upsert'ler ve partition başına uygulanan son offset, inventory_rebuild_offset tablosuna tek
+ * transaction'da yazılır. Sonraki çalıştırma her partition'a kayıtlı offset'ten önce başlamaz;
+ * yarıda kalan bir çalıştırma hiçbir şey yazmamış olur, tamamlanmış bir aralık tekrar eklenmez.
+ * Tablo inventory ile aynı veritabanında olduğu için yedekten dönüldüğünde offset'ler de yedeğin
+ * anına döner.
+ */
+@Component
+@Profile("rebuild")
+public class InventoryRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryRebuildRunner.class);
+
+    private static final Map<String, Integer> TOPIC_SIGNS = Map.of(
+            "stock-reserved", -1,
+            "stock-released", 1,
+            "stock-restocked", 1);
+
+    private static final String CREATE_OFFSETS =
+            "create table if not exists inventory_rebuild_offset (topic varchar(255) not null, " +
+            "partition_no int not null, next_offset bigint not null, applied_at timestamp not null, " +
+            "primary key (topic, partition_no))";
+
+    private static final String UPSERT_OFFSET =
+            "insert into inventory_rebuild_offset (topic, partition_no, next_offset, applied_at) values (?, ?, ?, now()) " +
+            "on conflict (topic, partition_no) do update set next_offset = excluded.next_offset, applied_at = now()";
+
+    private static final String UPSERT =
+            "insert into inventory (product_id, stock) values (?, ?) " +
+            "on conflict (product_id) do update set stock = inventory.stock + excluded.stock";
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurableApplicationContext context;
+    private final String bootstrapServers;
+    private final String from;
+    private final String offsets;
+    private final int threads;
+    private final int chunkSize;
+
+    public InventoryRebuildRunner(ObjectMapper objectMapper,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ConfigurableApplicationContext context,
+                                  @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                                  @Value("${inventory.rebuild.from:}") String from,
+                                  @Value("${inventory.rebuild.offsets:}") String offsets,
+                                  @Value("${inventory.rebuild.threads:8}") int threads,
+                                  @Value("${inventory.bulk.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.context = context;
+        this.bootstrapServers = bootstrapServers;
+        this.from = from;
+        this.offsets = offsets;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.nanoTime();
+        jdbcTemplate.execute(CREATE_OFFSETS);
+        Map<TopicPartition, long[]> ranges = resolveRanges(loadApplied());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        try {
+            for (Map.Entry<TopicPartition, long[]> range : ranges.entrySet()) {
+                futures.add(pool.submit(() -> replay(range.getKey(), range.getValue()[0], range.getValue()[1])));
+            }
+
+            LongIntHashMap deltas = new LongIntHashMap(1024, 0);
+            long records = 0;
+            for (Future<PartitionResult> future : futures) {
+                PartitionResult result = future.get();
+                records += result.records();
+                result.deltas().forEach((productId, delta) -> deltas.put(productId, deltas.get(productId) + delta));
+            }
+
+            int products = write(deltas, ranges);
+            double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+            log.info("Stok yeniden kurulumu tamamlandı: kayıt={}, ürün={}, süre={}s, kayıt/s={}",
+                    records, products, String.format("%.1f", seconds), Math.round(records / seconds));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * Partition başına [başlangıç, bitiş) offset aralığı. Bitiş, çalıştırma anındaki son offset'tir;
+     * başlangıç önce inventory.rebuild.offsets'ten (topic-partition=offset), yoksa zaman damgasından,
+     * o da yoksa partition başından alınır. Daha önce uygulanmış offset'lerin gerisine düşülmez.
+     */
+    private Map<TopicPartition, long[]> resolveRanges(Map<TopicPartition, Long> applied) {
+        Map<TopicPartition, Long> overrides = parseOffsets();
+        try (KafkaConsumer<byte[], byte[]> consumer = newConsumer()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : TOPIC_SIGNS.keySet()) {
+                for (PartitionInfo info : consumer.partitionsFor(topic)) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, OffsetAndTimestamp> byTime = Map.of();
+            if (!from.isBlank()) {
+                long timestamp = Instant.parse(from).toEpochMilli();
+                Map<TopicPartition, Long> query = new HashMap<>();
+                partitions.forEach(partition -> query.put(partition, timestamp));
+                byTime = consumer.offsetsForTimes(query);
+            }
+
+            Map<TopicPartition, long[]> ranges = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long end = endOffsets.get(partition);
+                long start;
+                if (overrides.containsKey(partition)) {
+                    start = overrides.get(partition);
+                } else if (!from.isBlank()) {
+                    OffsetAndTimestamp found = byTime.get(partition);
+                    start = found == null ? end : found.offset();
+                } else {
+                    start = beginningOffsets.get(partition);
+                }
+                Long appliedUpTo = applied.get(partition);
+                if (appliedUpTo != null && appliedUpTo > start) {
+                    log.info("Partition daha önce uygulanmış, kaldığı yerden devam ediliyor: {}, istenen={}, uygulanan={}",
+                            partition, start, appliedUpTo);
+                    start = appliedUpTo;
+                }
+                if (start < end) {
+                    ranges.put(partition, new long[]{start, end});
+                }
+            }
+            log.info("Stok yeniden kurulumu başlıyor: partition={}, okunacak kayıt≈{}", ranges.size(),
+                    ranges.values().stream().mapToLong(range -> range[1] - range[0]).sum());
+            return ranges;
+        }
+    }
+
+    private Map<TopicPartition, Long> loadApplied() {
+        Map<TopicPartition, Long> applied = new HashMap<>();
+        jdbcTemplate.query("select topic, partition_no, next_offset from inventory_rebuild_offset", rs -> {
+            applied.put(new TopicPartition(rs.getString(1), rs.getInt(2)), rs.getLong(3));
+        });
+        return applied;
+    }
+
+    private Map<TopicPartition, Long> parseOffsets() {
+        Map<TopicPartition, Long> parsed = new HashMap<>();
+        if (offsets.isBlank()) {
+            return parsed;
+        }
+        for (String entry : offsets.split(",")) {
+            String[] keyValue = entry.trim().split("=");
+            int dash = keyValue[0].lastIndexOf('-');
+            parsed.put(new TopicPartition(keyValue[0].substring(0, dash), Integer.parseInt(keyValue[0].substring(dash + 1))),
+                    Long.parseLong(keyValue[1]));
+        }
+        return parsed;
+    }
+
+    private PartitionResult replay(TopicPartition partition, long start, long end) throws IOException {
+        int sign = TOPIC_SIGNS.get(partition.topic());
+        LongIntHashMap deltas = new LongIntHashMap(1024, 0);
+        long records = 0;
+        long started = System.nanoTime();
+
+        try (KafkaConsumer<byte[], byte[]> consumer = newConsumer()) {
+            consumer.assign(List.of(partition));
+            consumer.seek(partition, start);
+            while (consumer.position(partition) < end) {
+                ConsumerRecords<byte[], byte[]> batch = consumer.poll(Duration.ofMillis(500));
+                for (ConsumerRecord<byte[], byte[]> record : batch) {
+                    if (record.offset() >= end) {
+                        break;
+                    }
+                    records++;
+                    if (record.value() == null) {
+                        continue;
+                    }
+                    StockDeltaRecord delta = objectMapper.readValue(record.value(), StockDeltaRecord.class);
+                    for (OrderItem line : delta.lines()) {
+                        deltas.put(line.productId(), deltas.get(line.productId()) + sign * line.quantity());
+                    }
+                }
+            }
+        }
+
+        double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        log.info("Partition okundu: {}, kayıt={}, ürün={}, kayıt/s={}",
+                partition, records, deltas.size(), Math.round(records / seconds));
+        return new PartitionResult(deltas, records);
+    }
+
+    /**
+     * Farklar ve okunan aralıkların bitiş offset'leri tek transaction'da yazılır; chunk'lar yalnızca
+     * JDBC batch boyutunu sınırlar.
+     */
+    private int write(LongIntHashMap deltas, Map<TopicPartition, long[]> ranges) {
+        List<long[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                rows.add(new long[]{productId, delta});
+            }
+        });
+        rows.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        List<Object[]> offsetRows = new ArrayList<>(ranges.size());
+        ranges.forEach((partition, range) -> offsetRows.add(new Object[]{partition.topic(), partition.partition(), range[1]}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT, rows, chunkSize, (ps, row) -> {
+                ps.setLong(1, row[0]);
+                ps.setInt(2, (int) row[1]);
+            });
+            jdbcTemplate.batchUpdate(UPSERT_OFFSET, offsetRows);
+        });
+        return rows.size();
+    }
+
+    private KafkaConsumer<byte[], byte[]> newConsumer() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        configProps.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 64 * 1024 * 1024);
+        configProps.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new KafkaConsumer<>(configProps);
+    }
+
+    private record PartitionResult(LongIntHashMap deltas, long records) {
+    }
+}
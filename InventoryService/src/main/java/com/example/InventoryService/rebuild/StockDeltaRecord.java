@@ -0,0 +1,27 @@
+package com.example.InventoryService.rebuild;
+
+import com.example.InventoryService.event.OrderItem;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * stock-reserved, stock-released ve stock-restocked event'lerinin stok değişikliği için gereken ortak alanları.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record StockDeltaRecord(
+        Long productId,
+        Integer quantity,
+        List<OrderItem> items
+) {
+
+    List<OrderItem> lines() {
+        if (items != null && !items.isEmpty()) {
+            return items;
+        }
+        if (productId == null || quantity == null) {
+            return List.of();
+        }
+        return List.of(new OrderItem(productId, quantity));
+    }
+}
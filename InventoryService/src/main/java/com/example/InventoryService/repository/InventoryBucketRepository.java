@@ -0,0 +1,60 @@
+package com.example.InventoryService.repository;
+
+import com.example.InventoryService.entity.InventoryBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface InventoryBucketRepository extends JpaRepository<InventoryBucket, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("update InventoryBucket b set b.stock = b.stock - :quantity " +
+            "where b.productId = :productId and b.bucketNo = :bucketNo and b.stock >= :quantity")
+    int reserveFromBucket(@Param("productId") Long productId,
+                          @Param("bucketNo") Integer bucketNo,
+                          @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Transactional
+    @Query("update InventoryBucket b set b.stock = b.stock + :quantity " +
+            "where b.productId = :productId and b.bucketNo = :bucketNo")
+    int releaseToBucket(@Param("productId") Long productId,
+                        @Param("bucketNo") Integer bucketNo,
+                        @Param("quantity") Integer quantity);
+
+    /**
+     * Bucket'ları her zaman bucketNo sırasıyla kilitler; deadlock'u önlemek için
+     * çoklu bucket işlemleri yalnızca bu metodu kullanmalıdır.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from InventoryBucket b where b.productId = :productId order by b.bucketNo")
+    List<InventoryBucket> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * Bucket stoklarını entity yüklemeden, bucketNo sırasıyla kilitleyerek okur. Dönen değerler
+     * persistence context'ten değil doğrudan veritabanından gelir; aynı transaction'daki önceki
+     * toplu update'lerden sonra da günceldir.
+     */
+    @Query(value = "select bucket_no, stock from inventory_bucket where product_id = :productId " +
+            "order by bucket_no for update", nativeQuery = true)
+    List<Object[]> lockStocksByProductId(@Param("productId") Long productId);
+
+    @Query("select coalesce(sum(b.stock), 0) from InventoryBucket b where b.productId = :productId")
+    long sumStockByProductId(@Param("productId") Long productId);
+
+    @Query("select b.productId, count(b) from InventoryBucket b group by b.productId")
+    List<Object[]> countBucketsByProduct();
+
+    @Modifying
+    @Transactional
+    void deleteByProductId(Long productId);
+}
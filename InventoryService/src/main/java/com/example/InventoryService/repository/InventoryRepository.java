@@ -1,15 +1,55 @@
 package com.example.InventoryService.repository;
 
 import com.example.InventoryService.entity.Inventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     Optional<Inventory> findByProductId(Long productId);
-}
 
+    boolean existsByProductId(Long productId);
+
+    List<Inventory> findByProductIdIn(Collection<Long> productIds);
+
+    @Query("select i.productId from Inventory i order by i.productId")
+    Slice<Long> findAllProductIds(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.productId = :productId")
+    Optional<Inventory> findByProductIdForUpdate(@Param("productId") Long productId);
 
+    /**
+     * Satırın stoğunu entity yüklemeden kilitleyerek okur; aynı transaction'daki önceki toplu
+     * update'lerden sonra da günceldir.
+     */
+    @Query(value = "select stock from inventory where product_id = :productId for update", nativeQuery = true)
+    Optional<Integer> lockStockByProductId(@Param("productId") Long productId);
+
+    /**
+     * Stok kontrolü ve düşümü tek bir koşullu UPDATE ile yapılır; 0 dönerse
+     * ya kayıt yoktur ya da stok yetersizdir.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.stock = i.stock - :quantity where i.productId = :productId and i.stock >= :quantity")
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Transactional
+    @Query("update Inventory i set i.stock = i.stock + :quantity where i.productId = :productId")
+    int releaseStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+}
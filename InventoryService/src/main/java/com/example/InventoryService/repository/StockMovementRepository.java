@@ -0,0 +1,15 @@
+package com.example.InventoryService.repository;
+
+import com.example.InventoryService.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findTop100ByProductIdOrderByIdDesc(Long productId);
+
+    List<StockMovement> findByOrderIdOrderById(Long orderId);
+}
@@ -0,0 +1,163 @@
+package com.example.InventoryService.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * payment-failed birikimi eşiği aştığında order-placed container'larını duraklatır, birikim
+ * erimeye başlayınca yeniden başlatır. Böylece yoğunluk anında yeni sipariş almak yerine
+ * kilitli kalan stok önce serbest bırakılır. Duraklatma ve devam eşikleri ayrı tutulur ki
+ * container eşik çevresinde sürekli açılıp kapanmasın. Paylaşımlı container modunda yalnızca
+ * order-placed partition'ları duraklatılır; payment-failed aynı consumer'da akmaya devam eder.
+ */
+@Component
+public class CompensationLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(CompensationLagMonitor.class);
+
+    private static final String GROUP_ID = "inventory-group";
+    private static final String COMPENSATION_TOPIC = "payment-failed";
+    private static final String ORDER_PLACED_TOPIC = "order-placed";
+    private static final List<String> ORDER_PLACED_LISTENERS = List.of("orderPlaced", "orderPlacedBatch");
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final KafkaAdmin kafkaAdmin;
+    private final boolean enabled;
+    private final long pauseLag;
+    private final long resumeLag;
+    private AdminClient adminClient;
+    private volatile long lastLag;
+    private volatile boolean paused;
+
+    public CompensationLagMonitor(KafkaListenerEndpointRegistry registry,
+                                  KafkaAdmin kafkaAdmin,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${inventory.compensation.priority.enabled:true}") boolean enabled,
+                                  @Value("${inventory.compensation.priority.pause-lag:1000}") long pauseLag,
+                                  @Value("${inventory.compensation.priority.resume-lag:100}") long resumeLag) {
+        this.registry = registry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.enabled = enabled;
+        this.pauseLag = pauseLag;
+        this.resumeLag = resumeLag;
+        Gauge.builder("inventory.compensation.lag", this, monitor -> monitor.lastLag).register(meterRegistry);
+        Gauge.builder("inventory.order-placed.paused", this, monitor -> monitor.paused ? 1 : 0).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.compensation.priority.check-interval-ms:1000}")
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        long lag;
+        try {
+            lag = compensationLag();
+        } catch (Exception e) {
+            log.warn("payment-failed lag okunamadı, order-placed durumu değiştirilmedi", e);
+            return;
+        }
+        lastLag = lag;
+
+        if (!paused && lag >= pauseLag) {
+            paused = true;
+            orderPlacedContainers().forEach(MessageListenerContainer::pause);
+            log.warn("payment-failed birikimi yüksek, order-placed duraklatıldı: lag={}, eşik={}", lag, pauseLag);
+        } else if (paused && lag <= resumeLag) {
+            paused = false;
+            orderPlacedContainers().forEach(MessageListenerContainer::resume);
+            log.info("payment-failed birikimi eridi, order-placed devam ediyor: lag={}", lag);
+        }
+        // Rebalance sonrası yeni atanan order-placed partition'ları da her kontrolde aynı duruma getirilir.
+        pauseSharedOrderPlaced(paused);
+    }
+
+    private void pauseSharedOrderPlaced(boolean pause) {
+        MessageListenerContainer shared = registry.getListenerContainer(SagaEventDispatcher.LISTENER_ID);
+        if (shared == null || !shared.isRunning()) {
+            return;
+        }
+        Collection<TopicPartition> assigned = shared.getAssignedPartitions();
+        if (assigned == null) {
+            return;
+        }
+        for (TopicPartition partition : assigned) {
+            if (!ORDER_PLACED_TOPIC.equals(partition.topic()) || shared.isPartitionPauseRequested(partition) == pause) {
+                continue;
+            }
+            if (pause) {
+                shared.pausePartition(partition);
+            } else {
+                shared.resumePartition(partition);
+            }
+        }
+    }
+
+    /**
+     * inventory-group'un payment-failed partition'larındaki commit edilmiş offset ile son offset farkının toplamı.
+     */
+    private long compensationLag() throws Exception {
+        AdminClient admin = adminClient();
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(GROUP_ID)
+                .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+
+        Map<TopicPartition, OffsetSpec> query = new HashMap<>();
+        committed.keySet().stream()
+                .filter(partition -> COMPENSATION_TOPIC.equals(partition.topic()))
+                .forEach(partition -> query.put(partition, OffsetSpec.latest()));
+        if (query.isEmpty()) {
+            return 0;
+        }
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest =
+                admin.listOffsets(query).all().get(5, TimeUnit.SECONDS);
+        long lag = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : latest.entrySet()) {
+            OffsetAndMetadata offset = committed.get(entry.getKey());
+            if (offset != null) {
+                lag += Math.max(0, entry.getValue().offset() - offset.offset());
+            }
+        }
+        return lag;
+    }
+
+    private List<MessageListenerContainer> orderPlacedContainers() {
+        return ORDER_PLACED_LISTENERS.stream()
+                .map(registry::getListenerContainer)
+                .filter(container -> container != null && container.isRunning())
+                .toList();
+    }
+
+    private synchronized AdminClient adminClient() {
+        if (adminClient == null) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.InventoryService.service;
+
+import com.example.InventoryService.event.InventoryLevelEvent;
+import com.example.InventoryService.repository.InventoryRepository;
+import com.example.InventoryService.stock.StockStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stok seviyelerini productId anahtarıyla log-compacted inventory-levels topic'ine yayınlar.
+ * Değişen ürünler commit sonrası işaretlenir ve periyodik olarak toplu gönderilir; aynı ürün
+ * aralık içinde kaç kez değişirse değişsin tek bir güncel seviye yayınlanır. Kaydı silinen
+ * ürün için tombstone (null değer) gönderilir.
+ */
+@Component
+public class InventoryLevelPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLevelPublisher.class);
+    public static final String TOPIC = "inventory-levels";
+
+    private final StockStore stockStore;
+    private final InventoryRepository inventoryRepository;
+    private final KafkaTemplate<String, InventoryLevelEvent> inventoryLevelKafkaTemplate;
+    private final boolean publishOnStartup;
+    private final int pageSize;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public InventoryLevelPublisher(StockStore stockStore,
+                                   InventoryRepository inventoryRepository,
+                                   KafkaTemplate<String, InventoryLevelEvent> inventoryLevelKafkaTemplate,
+                                   @Value("${inventory.levels.publish-on-startup:true}") boolean publishOnStartup,
+                                   @Value("${inventory.bulk.chunk-size:1000}") int pageSize) {
+        this.stockStore = stockStore;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryLevelKafkaTemplate = inventoryLevelKafkaTemplate;
+        this.publishOnStartup = publishOnStartup;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Ürünün seviyesinin yeniden yayınlanması gerektiğini işaretler; transaction içindeyse commit'i bekler.
+     */
+    public void changed(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.addAll(ids);
+                }
+            });
+        } else {
+            dirty.addAll(productIds);
+        }
+    }
+
+    public void changed(Long productId) {
+        changed(List.of(productId));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.levels.publish-interval-ms:200}")
+    public void publishChanged() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(dirty);
+        dirty.removeAll(productIds);
+        publish(productIds);
+    }
+
+    /**
+     * Compacted topic'in boş ya da eski olma ihtimaline karşı açılışta tüm seviyeleri yayınlar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishAll() {
+        if (!publishOnStartup) {
+            return;
+        }
+        int published = 0;
+        Slice<Long> page = inventoryRepository.findAllProductIds(PageRequest.of(0, pageSize));
+        while (true) {
+            publish(page.getContent());
+            published += page.getNumberOfElements();
+            if (!page.hasNext()) {
+                break;
+            }
+            page = inventoryRepository.findAllProductIds(page.nextPageable());
+        }
+        log.info("Stok seviyeleri yayınlandı: ürün sayısı={}", published);
+    }
+
+    private void publish(List<Long> productIds) {
+        Map<Long, Integer> levels = stockStore.availableAll(productIds);
+        Instant now = Instant.now();
+        for (Long productId : productIds) {
+            Integer available = levels.get(productId);
+            InventoryLevelEvent event = available == null ? null : new InventoryLevelEvent(productId, available, now);
+            inventoryLevelKafkaTemplate.send(TOPIC, String.valueOf(productId), event);
+        }
+    }
+}
@@ -1,40 +1,163 @@
 package com.example.InventoryService.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.InventoryService.dto.BulkCreateSummary;
+import com.example.InventoryService.dto.RestockLine;
+import com.example.InventoryService.dto.RestockSummary;
 import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.entity.StockMovement;
+import com.example.InventoryService.enums.EventOutcome;
+import com.example.InventoryService.enums.ReservationResult;
 import com.example.InventoryService.event.OrderCancelledEvent;
 import com.example.InventoryService.event.OrderEvent;
+import com.example.InventoryService.event.OrderItem;
 import com.example.InventoryService.event.PaymentFailedEvent;
 import com.example.InventoryService.event.StockReleasedEvent;
 import com.example.InventoryService.event.StockReservedEvent;
+import com.example.InventoryService.event.StockRestockedEvent;
+import com.example.InventoryService.hotsku.HotSkuDetector;
+import com.example.InventoryService.idempotency.ProcessedEventStore;
 import com.example.InventoryService.repository.InventoryRepository;
+import com.example.InventoryService.repository.StockMovementRepository;
+import com.example.InventoryService.stock.BucketedStockStore;
+import com.example.InventoryService.stock.ReservationOutcome;
+import com.example.InventoryService.stock.StockStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 @Service
 public class InventoryService {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+    private static final int MAX_MULTI_GET = 1000;
+    private static final String INSERT_MISSING = """
+            insert into inventory (product_id, stock)
+            select * from unnest(?::bigint[], ?::int[])
+            on conflict (product_id) do nothing
+            returning product_id
+            """;
+
     private final InventoryRepository inventoryRepository;
+    private final StockStore stockStore;
+    private final StockMovementRepository stockMovementRepository;
     private final KafkaTemplate<String, StockReservedEvent> stockReservedKafkaTemplate;
     private final KafkaTemplate<String, OrderCancelledEvent> orderCancelledKafkaTemplate;
     private final KafkaTemplate<String, StockReleasedEvent> stockReleasedKafkaTemplate;
+    private final KafkaTemplate<String, StockRestockedEvent> stockRestockedKafkaTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProcessedEventStore processedEventStore;
+    private final InventoryLevelPublisher levelPublisher;
+    private final HotSkuDetector hotSkuDetector;
+    private final int bulkChunkSize;
+    private final boolean kafkaTransactions;
 
     public InventoryService(InventoryRepository inventoryRepository,
+                           StockStore stockStore,
+                           StockMovementRepository stockMovementRepository,
                            KafkaTemplate<String, StockReservedEvent> stockReservedKafkaTemplate,
                            KafkaTemplate<String, OrderCancelledEvent> orderCancelledKafkaTemplate,
-                           KafkaTemplate<String, StockReleasedEvent> stockReleasedKafkaTemplate) {
+                           KafkaTemplate<String, StockReleasedEvent> stockReleasedKafkaTemplate,
+                           KafkaTemplate<String, StockRestockedEvent> stockRestockedKafkaTemplate,
+                           JdbcTemplate jdbcTemplate,
+                           ObjectMapper objectMapper,
+                           ProcessedEventStore processedEventStore,
+                           InventoryLevelPublisher levelPublisher,
+                           HotSkuDetector hotSkuDetector,
+                           @Value("${inventory.bulk.chunk-size:1000}") int bulkChunkSize,
+                           @Value("${inventory.kafka.transactions.enabled:false}") boolean kafkaTransactions,
+                           @Value("${inventory.order-placed.batch.enabled:false}") boolean orderPlacedBatch,
+                           @Value("${inventory.listeners.shared.enabled:false}") boolean sharedListener) {
+        if (kafkaTransactions && stockStore.writeBehind()) {
+            throw new IllegalStateException("Transactional Kafka modu write-behind stok modu ile kullanılamaz");
+        }
+        // Tek kayıtlık container'lar her kayıt için ayrı bir Kafka transaction'ı açar; siparişleri
+        // transaction başına gruplayan yalnızca batch listener'dır.
+        if (kafkaTransactions && (!orderPlacedBatch || sharedListener)) {
+            throw new IllegalStateException("Transactional Kafka modu order-placed batch listener gerektirir: "
+                    + "inventory.order-placed.batch.enabled=true ve inventory.listeners.shared.enabled=false olmalı");
+        }
         this.inventoryRepository = inventoryRepository;
+        this.stockStore = stockStore;
+        this.stockMovementRepository = stockMovementRepository;
         this.stockReservedKafkaTemplate = stockReservedKafkaTemplate;
         this.orderCancelledKafkaTemplate = orderCancelledKafkaTemplate;
         this.stockReleasedKafkaTemplate = stockReleasedKafkaTemplate;
+        this.stockRestockedKafkaTemplate = stockRestockedKafkaTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.processedEventStore = processedEventStore;
+        this.levelPublisher = levelPublisher;
+        this.hotSkuDetector = hotSkuDetector;
+        this.bulkChunkSize = bulkChunkSize;
+        this.kafkaTransactions = kafkaTransactions;
+    }
+
+    public Integer getAvailableStock(Long productId) {
+        return stockStore.available(productId);
+    }
+
+    public boolean restock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Stok girişi pozitif olmalı: " + quantity);
+        }
+        boolean applied = stockStore.restock(productId, quantity);
+        if (applied) {
+            sendStockRestocked(productId, quantity);
+            levelPublisher.changed(productId);
+            log.info("Stok girişi yapıldı: productId={}, miktar={}", productId, quantity);
+        }
+        return applied;
+    }
+
+    public List<StockMovement> getMovementsByProductId(Long productId) {
+        return stockMovementRepository.findTop100ByProductIdOrderByIdDesc(productId);
+    }
+
+    public List<StockMovement> getMovementsByOrderId(Long orderId) {
+        return stockMovementRepository.findByOrderIdOrderById(orderId);
+    }
+
+    public void splitStock(Long productId, int buckets) {
+        bucketedStore().split(productId, buckets);
+    }
+
+    public void mergeStock(Long productId) {
+        bucketedStore().merge(productId);
+    }
+
+    private BucketedStockStore bucketedStore() {
+        if (stockStore instanceof BucketedStockStore bucketedStockStore) {
+            return bucketedStockStore;
+        }
+        throw new IllegalStateException("Bucket işlemleri için inventory.stock.mode=bucketed olmalı");
     }
 
     public Inventory createInventory(Inventory inventory) {
@@ -42,103 +165,460 @@ public class InventoryService {
         if (existing.isPresent()) {
             throw new RuntimeException("Bu ürün için zaten stok kaydı mevcut: " + inventory.getProductId());
         }
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        sendStockRestocked(saved.getProductId(), saved.getStock());
+        levelPublisher.changed(saved.getProductId());
+        return saved;
+    }
+
+    /**
+     * Kaydı olmayan ürünler için stok kaydı açar. Her parça tek bir INSERT ... SELECT unnest
+     * ile yazılır; zaten kaydı olan ürünlere dokunulmaz, mevcut stoğa ekleme restock ile yapılır.
+     */
+    public BulkCreateSummary createInventories(List<Inventory> inventories) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (Inventory inventory : inventories) {
+            if (inventory.getProductId() == null || inventory.getStock() == null || inventory.getStock() < 0) {
+                throw new IllegalArgumentException("Geçersiz stok kaydı: productId=" + inventory.getProductId());
+            }
+            requested.put(inventory.getProductId(), inventory.getStock());
+        }
+
+        Set<Long> created = new HashSet<>();
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(requested.entrySet());
+        for (int from = 0; from < entries.size(); from += bulkChunkSize) {
+            List<Map.Entry<Long, Integer>> chunk = entries.subList(from, Math.min(from + bulkChunkSize, entries.size()));
+            created.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_MISSING);
+                Array productIds = con.createArrayOf("bigint", chunk.stream().map(Map.Entry::getKey).toArray());
+                Array stocks = con.createArrayOf("integer", chunk.stream().map(Map.Entry::getValue).toArray());
+                ps.setArray(1, productIds);
+                ps.setArray(2, stocks);
+                return ps;
+            }, (rs, rowNum) -> rs.getLong(1)));
+        }
+
+        for (Long productId : created) {
+            sendStockRestocked(productId, requested.get(productId));
+        }
+        levelPublisher.changed(created);
+        List<Long> skipped = requested.keySet().stream().filter(id -> !created.contains(id)).toList();
+        log.info("Toplu stok kaydı oluşturuldu: istenen={}, oluşturulan={}, atlanan={}",
+                requested.size(), created.size(), skipped.size());
+        return new BulkCreateSummary(created.size(), skipped);
+    }
+
+    public Map<Long, Integer> getAvailableStocks(Collection<Long> productIds) {
+        if (productIds.size() > MAX_MULTI_GET) {
+            throw new IllegalArgumentException("Tek sorguda en fazla " + MAX_MULTI_GET + " ürün istenebilir");
+        }
+        return stockStore.availableAll(productIds);
+    }
+
+    /**
+     * NDJSON ({"productId":1,"quantity":5}) ya da CSV (productId,quantity) gövdeyi satır satır
+     * okur; aynı ürünün girişleri parça içinde toplanır ve her parça tek bir batch ile uygulanır.
+     * Gövde belleğe alınmaz, okunamayan ya da miktarı pozitif olmayan satırlar atlanır.
+     */
+    public RestockSummary restockStream(InputStream body, boolean csv) throws IOException {
+        long lines = 0;
+        long applied = 0;
+        long notFound = 0;
+        long rejected = 0;
+        Map<Long, Integer> chunk = new LinkedHashMap<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            lines++;
+            RestockLine restockLine = csv ? parseCsvLine(line) : parseJsonLine(line);
+            if (restockLine == null) {
+                if (!(csv && lines == 1)) {
+                    rejected++;
+                }
+                continue;
+            }
+            if (restockLine.productId() == null || restockLine.quantity() == null || restockLine.quantity() <= 0) {
+                rejected++;
+                continue;
+            }
+            chunk.merge(restockLine.productId(), restockLine.quantity(), Integer::sum);
+            if (chunk.size() >= bulkChunkSize) {
+                int updated = applyRestockChunk(chunk);
+                applied += updated;
+                notFound += chunk.size() - updated;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int updated = applyRestockChunk(chunk);
+            applied += updated;
+            notFound += chunk.size() - updated;
+        }
+
+        log.info("Toplu stok girişi tamamlandı: satır={}, uygulanan={}, bulunamayan={}, atlanan={}",
+                lines, applied, notFound, rejected);
+        return new RestockSummary(lines, applied, notFound, rejected);
+    }
+
+    private int applyRestockChunk(Map<Long, Integer> chunk) {
+        List<Long> applied = stockStore.restockAll(chunk);
+        for (Long productId : applied) {
+            sendStockRestocked(productId, chunk.get(productId));
+        }
+        levelPublisher.changed(applied);
+        return applied.size();
+    }
+
+    private RestockLine parseJsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, RestockLine.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * CSV satırını çözer; ilk satır sayı değilse başlık kabul edilir ve null döner.
+     */
+    private RestockLine parseCsvLine(String line) {
+        String[] columns = line.split(",");
+        if (columns.length < 2) {
+            return null;
+        }
+        try {
+            return new RestockLine(Long.parseLong(columns[0].trim()), Integer.parseInt(columns[1].trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Event'i bu instance'ın işleyeceğini kaydeder; daha önce işlendiyse false döner.
+     * Kayıt stok değişikliğiyle aynı transaction'da yazılır. Write-behind modda işaret
+     * bellekte tutulur, kayıt ise işlem başarıyla bittikten sonra confirm ile stok flush'ına eklenir.
+     */
+    private boolean claim(String topic, Long orderId) {
+        if (processedEventStore.seen(topic, orderId)) {
+            return false;
+        }
+        if (stockStore.writeBehind()) {
+            processedEventStore.markInMemory(topic, orderId);
+            return true;
+        }
+        return processedEventStore.record(topic, orderId);
+    }
+
+    /**
+     * Write-behind modda kaydı stok değişikliğini yazan flush transaction'ına ekler; ack'ten önce
+     * çağrılmalıdır.
+     */
+    private void confirm(String topic, Long orderId) {
+        if (stockStore.writeBehind()) {
+            stockStore.recordProcessed(topic, orderId);
+        }
     }
 
+    /**
+     * İşlem hata ile bittiğinde write-behind modda bellekteki işareti kaldırır; diğer modlarda
+     * kayıt zaten transaction ile birlikte geri alınır.
+     */
+    private void unclaim(String topic, Long orderId) {
+        if (stockStore.writeBehind()) {
+            processedEventStore.forget(topic, orderId);
+        }
+    }
 
-    @KafkaListener(topics = "order-placed", groupId = "inventory-group")
-    public void handleOrderPlaced(OrderEvent event) {
+    @Transactional
+    @KafkaListener(id = "orderPlaced", topics = "order-placed", groupId = "inventory-group",
+            containerFactory = "orderPlacedKafkaListenerContainerFactory",
+            autoStartup = "#{${inventory.listeners.enabled:true} && !${inventory.listeners.shared.enabled:false} && !${inventory.order-placed.batch.enabled:false}}")
+    public void handleOrderPlaced(OrderEvent event, Acknowledgment ack) {
         log.info("Order placed event alındı: orderId={}, productId={}, quantity={}, totalPrice={}",
                 event.orderId(), event.productId(), event.quantity(), event.totalPrice());
 
-        try {
-            Optional<Inventory> invOpt = inventoryRepository.findByProductId(event.productId());
-            
-            if (invOpt.isEmpty()) {
-                log.warn("Stok kaydı bulunamadı, sipariş iptal ediliyor: orderId={}, productId={}",
-                        event.orderId(), event.productId());
-                
-                OrderCancelledEvent cancelledEvent = new OrderCancelledEvent(
-                        event.orderId(),
-                        "Stok kaydı bulunamadı: productId=" + event.productId()
-                );
-                orderCancelledKafkaTemplate.send("order-cancelled", cancelledEvent);
-                log.info("Order cancelled event gönderildi: orderId={}", event.orderId());
-                return;
-            }
+        if (!claim("order-placed", event.orderId())) {
+            log.info("Order placed event daha önce işlenmiş, atlanıyor: orderId={}", event.orderId());
+            replayOrderPlaced(event);
+            ack.acknowledge();
+            return;
+        }
 
-            Inventory inv = invOpt.get();
-
-            if (inv.getStock() < event.quantity()) {
-                log.warn("Yetersiz stok, sipariş iptal ediliyor: orderId={}, productId={}, mevcut={}, istenen={}",
-                        event.orderId(), event.productId(), inv.getStock(), event.quantity());
-                
-                OrderCancelledEvent cancelledEvent = new OrderCancelledEvent(
-                        event.orderId(),
-                        String.format("Yetersiz stok: mevcut=%d, istenen=%d", inv.getStock(), event.quantity())
-                );
-                orderCancelledKafkaTemplate.send("order-cancelled", cancelledEvent);
-                log.info("Order cancelled event gönderildi: orderId={}", event.orderId());
-                return;
+        try {
+            if (event.lines().size() > 1) {
+                reserveMultiLine(event);
+            } else {
+                reserveSingleLine(event);
             }
-
-            inv.setStock(inv.getStock() - event.quantity());
-            inventoryRepository.save(inv);
-            log.info("Stok düşüldü: productId={}, yeni stok={}, düşülen miktar={}",
-                    inv.getProductId(), inv.getStock(), event.quantity());
-
-            StockReservedEvent stockReservedEvent = new StockReservedEvent(
-                    event.orderId(),
-                    event.productId(),
-                    event.quantity(),
-                    event.totalPrice(),
-                    event.customerEmail()
-            );
-            stockReservedKafkaTemplate.send("stock-reserved", stockReservedEvent);
-            log.info("Stock reserved event gönderildi: orderId={}, productId={}, quantity={}",
-                    event.orderId(), event.productId(), event.quantity());
+            confirm("order-placed", event.orderId());
+            stockStore.afterDurable(ack::acknowledge);
 
         } catch (Exception e) {
             log.error("Order placed event işlenirken hata oluştu: orderId={}",
                     event.orderId(), e);
+            unclaim("order-placed", event.orderId());
             throw e;
         }
     }
 
+    private void reserveSingleLine(OrderEvent event) {
+        OrderItem line = event.lines().get(0);
+        ReservationResult result = stockStore.reserve(event.orderId(), line.productId(), line.quantity());
+        hotSkuDetector.record(line.productId(), result != ReservationResult.RESERVED);
+
+        if (result == ReservationResult.NOT_FOUND) {
+            log.warn("Stok kaydı bulunamadı, sipariş iptal ediliyor: orderId={}, productId={}",
+                    event.orderId(), line.productId());
+            sendOrderCancelled(event.orderId(), "Stok kaydı bulunamadı: productId=" + line.productId());
+        } else if (result == ReservationResult.INSUFFICIENT_STOCK) {
+            log.warn("Yetersiz stok, sipariş iptal ediliyor: orderId={}, productId={}, istenen={}",
+                    event.orderId(), line.productId(), line.quantity());
+            sendOrderCancelled(event.orderId(), String.format("Yetersiz stok: istenen=%d", line.quantity()));
+        } else {
+            log.info("Stok düşüldü: productId={}, düşülen miktar={}",
+                    line.productId(), line.quantity());
+            sendStockReserved(event);
+        }
+    }
+
+    private void reserveMultiLine(OrderEvent event) {
+        ReservationOutcome outcome = stockStore.reserveAll(event.orderId(), event.lines());
+        recordDemand(event.lines(), outcome);
+
+        if (outcome.isReserved()) {
+            log.info("Çok satırlı sipariş için stok düşüldü: orderId={}, satır sayısı={}",
+                    event.orderId(), event.lines().size());
+            sendStockReserved(event);
+        } else if (outcome.result() == ReservationResult.NOT_FOUND) {
+            log.warn("Stok kaydı bulunamadı, sipariş iptal ediliyor: orderId={}, productId={}",
+                    event.orderId(), outcome.failedProductId());
+            sendOrderCancelled(event.orderId(), "Stok kaydı bulunamadı: productId=" + outcome.failedProductId());
+        } else {
+            log.warn("Yetersiz stok, sipariş iptal ediliyor: orderId={}, productId={}",
+                    event.orderId(), outcome.failedProductId());
+            sendOrderCancelled(event.orderId(), "Yetersiz stok: productId=" + outcome.failedProductId());
+        }
+    }
+
+    /**
+     * Çok satırlı siparişte her satır bir talep sayılır; başarısızlık yalnızca sığmayan ürüne yazılır.
+     */
+    private void recordDemand(List<OrderItem> lines, ReservationOutcome outcome) {
+        for (OrderItem line : lines) {
+            hotSkuDetector.record(line.productId(), line.productId().equals(outcome.failedProductId()));
+        }
+    }
+
+    /**
+     * Poll batch'i productId bazında gruplar; her ürün için önce tek bir toplu
+     * rezervasyon denenir, sığmayan siparişler geliş sırasına göre ayrılıp iptal edilir.
+     * Çok satırlı siparişler gruplamaya girmez, ürün grupları işlendikten sonra tek tek rezerve edilir.
+     */
+    @Transactional
+    @KafkaListener(id = "orderPlacedBatch", topics = "order-placed", groupId = "inventory-group",
+            containerFactory = "orderPlacedBatchKafkaListenerContainerFactory",
+            autoStartup = "#{${inventory.listeners.enabled:true} && !${inventory.listeners.shared.enabled:false} && ${inventory.order-placed.batch.enabled:false}}")
+    public void handleOrderPlacedBatch(List<OrderEvent> events, Acknowledgment ack) {
+        log.info("Order placed batch alındı: size={}", events.size());
+
+        Map<Long, List<Integer>> byProduct = new TreeMap<>();
+        List<Integer> multiLine = new ArrayList<>();
+        List<Long> claimed = new ArrayList<>(events.size());
+        int duplicates = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (!claim("order-placed", events.get(i).orderId())) {
+                duplicates++;
+                replayOrderPlaced(events.get(i));
+                continue;
+            }
+            claimed.add(events.get(i).orderId());
+            List<OrderItem> lines = events.get(i).lines();
+            if (lines.size() > 1) {
+                multiLine.add(i);
+            } else {
+                byProduct.computeIfAbsent(lines.get(0).productId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        ReservationResult[] results = new ReservationResult[events.size()];
+        String[] reasons = new String[events.size()];
+        try {
+            for (Map.Entry<Long, List<Integer>> entry : byProduct.entrySet()) {
+                List<Integer> indexes = entry.getValue();
+                long[] orderIds = indexes.stream().mapToLong(i -> events.get(i).orderId()).toArray();
+                int[] quantities = indexes.stream().mapToInt(i -> events.get(i).lines().get(0).quantity()).toArray();
+                ReservationResult[] groupResults = stockStore.reserveInOrder(entry.getKey(), orderIds, quantities);
+                for (int j = 0; j < indexes.size(); j++) {
+                    int i = indexes.get(j);
+                    results[i] = groupResults[j];
+                    hotSkuDetector.record(entry.getKey(), groupResults[j] != ReservationResult.RESERVED);
+                    reasons[i] = groupResults[j] == ReservationResult.NOT_FOUND
+                            ? "Stok kaydı bulunamadı: productId=" + entry.getKey()
+                            : String.format("Yetersiz stok: istenen=%d", quantities[j]);
+                }
+            }
+            for (int i : multiLine) {
+                ReservationOutcome outcome = stockStore.reserveAll(events.get(i).orderId(), events.get(i).lines());
+                recordDemand(events.get(i).lines(), outcome);
+                results[i] = outcome.result();
+                reasons[i] = outcome.result() == ReservationResult.NOT_FOUND
+                        ? "Stok kaydı bulunamadı: productId=" + outcome.failedProductId()
+                        : "Yetersiz stok: productId=" + outcome.failedProductId();
+            }
+        } catch (Exception e) {
+            log.error("Order placed batch işlenirken hata oluştu: size={}", events.size(), e);
+            // Yalnızca bu çağrının sahiplendiği event'ler bırakılır; tekrar gelenler önceki teslimata aittir.
+            claimed.forEach(orderId -> unclaim("order-placed", orderId));
+            throw e;
+        }
 
-    @KafkaListener(topics = "payment-failed", groupId = "inventory-group", containerFactory = "paymentFailedKafkaListenerContainerFactory")
-    public void handlePaymentFailed(PaymentFailedEvent event) {
+        int cancelled = 0;
+        for (int i = 0; i < events.size(); i++) {
+            OrderEvent event = events.get(i);
+            if (results[i] == null) {
+                continue;
+            }
+            if (results[i] == ReservationResult.RESERVED) {
+                sendStockReserved(event);
+            } else {
+                cancelled++;
+                sendOrderCancelled(event.orderId(), reasons[i]);
+            }
+            confirm("order-placed", event.orderId());
+        }
+        stockStore.afterDurable(ack::acknowledge);
+        log.info("Order placed batch tamamlandı: size={}, ürün sayısı={}, iptal={}, tekrar={}",
+                events.size(), byProduct.size(), cancelled, duplicates);
+    }
+
+    private void sendStockReserved(OrderEvent event) {
+        levelPublisher.changed(event.lines().stream().map(OrderItem::productId).toList());
+        StockReservedEvent stockReservedEvent = new StockReservedEvent(
+                event.orderId(),
+                event.productId(),
+                event.quantity(),
+                event.totalPrice(),
+                event.customerEmail(),
+                event.items()
+        );
+        stockReservedKafkaTemplate.send("stock-reserved", stockReservedEvent);
+        saveOutcome("order-placed", event.orderId(), EventOutcome.RESERVED, null);
+        log.info("Stock reserved event gönderildi: orderId={}, satır sayısı={}",
+                event.orderId(), event.lines().size());
+    }
+
+    private void sendOrderCancelled(Long orderId, String reason) {
+        orderCancelledKafkaTemplate.send("order-cancelled", new OrderCancelledEvent(orderId, reason));
+        saveOutcome("order-placed", orderId, EventOutcome.CANCELLED, reason);
+        log.info("Order cancelled event gönderildi: orderId={}", orderId);
+    }
+
+    private void sendStockReleased(PaymentFailedEvent event, List<OrderItem> released) {
+        StockReleasedEvent stockReleasedEvent = new StockReleasedEvent(
+                event.orderId(),
+                event.productId(),
+                event.quantity(),
+                "Ödeme başarısız: " + event.reason(),
+                event.items() == null || event.items().isEmpty() ? null : released
+        );
+        stockReleasedKafkaTemplate.send("stock-released", stockReleasedEvent);
+        saveOutcome("payment-failed", event.orderId(), EventOutcome.RELEASED, null);
+        log.info("Stock released event gönderildi: orderId={}, satır sayısı={}",
+                event.orderId(), released.size());
+    }
+
+    /**
+     * Siparişe bağlı olmayan stok girişlerinin kaydı; yedekten dönüşte yeniden kurulum bu topic'i de okur.
+     * Kayıt oluşturma başlangıç stoğuyla birlikte bir giriş olarak yazılır.
+     */
+    private void sendStockRestocked(Long productId, Integer quantity) {
+        if (quantity == null || quantity == 0) {
+            return;
+        }
+        stockRestockedKafkaTemplate.send("stock-restocked", String.valueOf(productId),
+                new StockRestockedEvent(productId, quantity));
+    }
+
+    /**
+     * Sonuç yalnızca transactional modda saklanır; diğer modlarda gönderim zaten
+     * DB commit'inden bağımsızdır ve tekrar üretilmez.
+     */
+    private void saveOutcome(String topic, Long orderId, EventOutcome outcome, String reason) {
+        if (kafkaTransactions) {
+            processedEventStore.saveOutcome(topic, orderId, outcome, reason);
+        }
+    }
+
+    /**
+     * Stok değişikliği commit edilmiş ama Kafka transaction'ı abort olmuşsa gönderimler
+     * görünmez kalmıştır; tekrar gelen event için kaydedilen sonuç yeniden gönderilir.
+     */
+    private void replayOrderPlaced(OrderEvent event) {
+        if (!kafkaTransactions) {
+            return;
+        }
+        processedEventStore.findOutcome("order-placed", event.orderId()).ifPresent(stored -> {
+            if (stored.outcome() == EventOutcome.RESERVED) {
+                sendStockReserved(event);
+            } else {
+                sendOrderCancelled(event.orderId(), stored.reason());
+            }
+        });
+    }
+
+    private void replayPaymentFailed(PaymentFailedEvent event) {
+        if (!kafkaTransactions) {
+            return;
+        }
+        processedEventStore.findOutcome("payment-failed", event.orderId())
+                .ifPresent(stored -> sendStockReleased(event, event.lines()));
+    }
+
+
+    @Transactional
+    @KafkaListener(topics = "payment-failed", groupId = "inventory-group", containerFactory = "paymentFailedKafkaListenerContainerFactory",
+            autoStartup = "#{${inventory.listeners.enabled:true} && !${inventory.listeners.shared.enabled:false}}")
+    public void handlePaymentFailed(PaymentFailedEvent event, Acknowledgment ack) {
         log.info("Payment failed event alındı: orderId={}, productId={}, quantity={}, paymentId={}, reason={}",
                 event.orderId(), event.productId(), event.quantity(), event.paymentId(), event.reason());
 
+        if (!claim("payment-failed", event.orderId())) {
+            log.info("Payment failed event daha önce işlenmiş, atlanıyor: orderId={}", event.orderId());
+            replayPaymentFailed(event);
+            ack.acknowledge();
+            return;
+        }
+
         try {
-            Optional<Inventory> invOpt = inventoryRepository.findByProductId(event.productId());
-            if (invOpt.isEmpty()) {
-                log.warn("Stok kaydı bulunamadı, stok geri eklenemiyor: orderId={}, productId={}",
-                        event.orderId(), event.productId());
+            List<OrderItem> released = new ArrayList<>();
+            for (OrderItem line : event.lines()) {
+                if (stockStore.release(event.orderId(), line.productId(), line.quantity())) {
+                    released.add(line);
+                    log.info("Stok geri eklendi: productId={}, eklenen miktar={}",
+                            line.productId(), line.quantity());
+                } else {
+                    log.warn("Stok kaydı bulunamadı, stok geri eklenemiyor: orderId={}, productId={}",
+                            event.orderId(), line.productId());
+                }
+            }
+            levelPublisher.changed(released.stream().map(OrderItem::productId).toList());
+            confirm("payment-failed", event.orderId());
+            if (released.isEmpty()) {
+                stockStore.afterDurable(ack::acknowledge);
                 return;
             }
 
-            Inventory inv = invOpt.get();
-
-            inv.setStock(inv.getStock() + event.quantity());
-            inventoryRepository.save(inv);
-            log.info("Stok geri eklendi: productId={}, yeni stok={}, eklenen miktar={}",
-                    inv.getProductId(), inv.getStock(), event.quantity());
-
-            StockReleasedEvent stockReleasedEvent = new StockReleasedEvent(
-                    event.orderId(),
-                    event.productId(),
-                    event.quantity(),
-                    "Ödeme başarısız: " + event.reason()
-            );
-            stockReleasedKafkaTemplate.send("stock-released", stockReleasedEvent);
-            log.info("Stock released event gönderildi: orderId={}, productId={}, quantity={}",
-                    event.orderId(), event.productId(), event.quantity());
+            sendStockReleased(event, released);
+            stockStore.afterDurable(ack::acknowledge);
 
         } catch (Exception e) {
             log.error("Payment failed event işlenirken hata oluştu: orderId={}",
                     event.orderId(), e);
+            unclaim("payment-failed", event.orderId());
             throw e;
         }
     }
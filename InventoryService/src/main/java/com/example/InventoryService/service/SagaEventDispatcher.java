@@ -0,0 +1,37 @@
+package com.example.InventoryService.service;
+
+import com.example.InventoryService.event.OrderEvent;
+import com.example.InventoryService.event.PaymentFailedEvent;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paylaşımlı modda order-placed ve payment-failed'i tek container'dan alır ve event tipine göre
+ * InventoryService'teki işleyicilere yönlendirir; @Transactional sınırı işleyicilerde kalır.
+ */
+@Component
+@KafkaListener(id = SagaEventDispatcher.LISTENER_ID, topics = {"order-placed", "payment-failed"},
+        groupId = "inventory-group", containerFactory = "sagaKafkaListenerContainerFactory",
+        autoStartup = "#{${inventory.listeners.enabled:true} && ${inventory.listeners.shared.enabled:false}}")
+public class SagaEventDispatcher {
+
+    public static final String LISTENER_ID = "inventorySaga";
+
+    private final InventoryService inventoryService;
+
+    public SagaEventDispatcher(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @KafkaHandler
+    public void onOrderPlaced(OrderEvent event, Acknowledgment ack) {
+        inventoryService.handleOrderPlaced(event, ack);
+    }
+
+    @KafkaHandler
+    public void onPaymentFailed(PaymentFailedEvent event, Acknowledgment ack) {
+        inventoryService.handlePaymentFailed(event, ack);
+    }
+}
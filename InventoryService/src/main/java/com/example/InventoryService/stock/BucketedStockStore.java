@@ -0,0 +1,237 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.entity.InventoryBucket;
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.event.OrderItem;
+import com.example.InventoryService.repository.InventoryBucketRepository;
+import com.example.InventoryService.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Yoğun ürünlerin stoğunu N alt bucket'a bölerek tek satır kilidi üzerindeki
+ * sıralanmayı dağıtır. Bölünmemiş ürünler doğrudan inventory satırı üzerinden çalışır.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "bucketed")
+public class BucketedStockStore implements StockStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketedStockStore.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketRepository bucketRepository;
+    private final DatabaseStockStore rowStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebalanceThreshold;
+    private final Map<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+
+    public BucketedStockStore(InventoryRepository inventoryRepository,
+                              InventoryBucketRepository bucketRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${inventory.stock.buckets.rebalance-threshold:10}") int rebalanceThreshold) {
+        this.inventoryRepository = inventoryRepository;
+        this.bucketRepository = bucketRepository;
+        this.rowStore = new DatabaseStockStore(inventoryRepository, jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebalanceThreshold = rebalanceThreshold;
+    }
+
+    @PostConstruct
+    void loadBucketCounts() {
+        Map<Long, Integer> current = new ConcurrentHashMap<>();
+        for (Object[] row : bucketRepository.countBucketsByProduct()) {
+            current.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        bucketCounts.keySet().retainAll(current.keySet());
+        bucketCounts.putAll(current);
+    }
+
+    @Override
+    @Transactional
+    public ReservationResult reserve(Long orderId, Long productId, int quantity) {
+        Integer buckets = bucketCounts.get(productId);
+        if (buckets == null) {
+            return rowStore.reserve(orderId, productId, quantity);
+        }
+
+        int start = Math.floorMod(Long.hashCode(orderId), buckets);
+        for (int i = 0; i < buckets; i++) {
+            if (bucketRepository.reserveFromBucket(productId, (start + i) % buckets, quantity) == 1) {
+                return ReservationResult.RESERVED;
+            }
+        }
+
+        // Hiçbir bucket tek başına yetmedi; stok bucket'lara dağılmış ya da restock ile inventory
+        // satırında bekliyor olabilir. Kilit sırası split/merge/rebalance ile aynıdır: önce satır,
+        // sonra bucketNo sırasıyla bucket'lar. Satır ve bucket'lar entity olarak yüklenmez: aynı
+        // transaction'da önceki rezervasyonların toplu update'leri managed entity'lere yansımaz ve
+        // flush bayat stokları geri yazardı.
+        Integer rowStock = inventoryRepository.lockStockByProductId(productId).orElse(null);
+        if (rowStock == null) {
+            return ReservationResult.NOT_FOUND;
+        }
+        List<Object[]> locked = bucketRepository.lockStocksByProductId(productId);
+        if (locked.isEmpty()) {
+            bucketCounts.remove(productId);
+            return rowStore.reserve(orderId, productId, quantity);
+        }
+        int total = rowStock + locked.stream().mapToInt(row -> ((Number) row[1]).intValue()).sum();
+        if (total < quantity) {
+            return ReservationResult.INSUFFICIENT_STOCK;
+        }
+        int remaining = quantity;
+        int fromRow = Math.min(rowStock, remaining);
+        if (fromRow > 0) {
+            inventoryRepository.reserveStock(productId, fromRow);
+            remaining -= fromRow;
+        }
+        for (Object[] row : locked) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(((Number) row[1]).intValue(), remaining);
+            if (take > 0) {
+                bucketRepository.reserveFromBucket(productId, ((Number) row[0]).intValue(), take);
+                remaining -= take;
+            }
+        }
+        return ReservationResult.RESERVED;
+    }
+
+    @Override
+    @Transactional
+    public ReservationOutcome reserveAll(Long orderId, List<OrderItem> lines) {
+        return StockStore.super.reserveAll(orderId, lines);
+    }
+
+    @Override
+    @Transactional
+    public boolean release(Long orderId, Long productId, int quantity) {
+        Integer buckets = bucketCounts.get(productId);
+        if (buckets != null
+                && bucketRepository.releaseToBucket(productId, Math.floorMod(Long.hashCode(orderId), buckets), quantity) == 1) {
+            return true;
+        }
+        return rowStore.release(orderId, productId, quantity);
+    }
+
+    /**
+     * Stok girişi inventory satırına yazılır; bölünmüş ürünlerde rebalancer bunu bucket'lara dağıtır.
+     */
+    @Override
+    public boolean restock(Long productId, int quantity) {
+        return rowStore.restock(productId, quantity);
+    }
+
+    @Override
+    public Integer available(Long productId) {
+        Integer rowStock = rowStore.available(productId);
+        if (rowStock == null) {
+            return null;
+        }
+        return rowStock + (int) bucketRepository.sumStockByProductId(productId);
+    }
+
+    @Transactional
+    public void split(Long productId, int buckets) {
+        if (buckets < 2) {
+            throw new IllegalArgumentException("Bucket sayısı en az 2 olmalı: " + buckets);
+        }
+        Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Stok kaydı bulunamadı: productId=" + productId));
+        if (!bucketRepository.findByProductIdForUpdate(productId).isEmpty()) {
+            throw new IllegalStateException("Ürün zaten bucket'lara bölünmüş: productId=" + productId);
+        }
+
+        int total = inventory.getStock();
+        List<InventoryBucket> created = new ArrayList<>(buckets);
+        int[] shares = evenShares(total, buckets);
+        for (int i = 0; i < buckets; i++) {
+            created.add(new InventoryBucket(productId, i, shares[i]));
+        }
+        bucketRepository.saveAll(created);
+        inventory.setStock(0);
+        bucketCounts.put(productId, buckets);
+        log.info("Ürün stoğu bucket'lara bölündü: productId={}, bucket={}, toplam={}",
+                productId, buckets, total);
+    }
+
+    @Transactional
+    public void merge(Long productId) {
+        Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Stok kaydı bulunamadı: productId=" + productId));
+        List<InventoryBucket> locked = bucketRepository.findByProductIdForUpdate(productId);
+        int total = locked.stream().mapToInt(InventoryBucket::getStock).sum();
+        inventory.setStock(inventory.getStock() + total);
+        bucketRepository.deleteAll(locked);
+        bucketCounts.remove(productId);
+        log.info("Ürün bucket'ları birleştirildi: productId={}, aktarılan={}", productId, total);
+    }
+
+    /**
+     * Bucket'lar arasındaki dengesizliği giderir ve inventory satırına sonradan
+     * eklenen stoğu bucket'lara dağıtır. Bucket sayılarını diğer instance'larla da senkronlar.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock.buckets.rebalance-interval-ms:1000}")
+    public void rebalance() {
+        loadBucketCounts();
+        for (Long productId : bucketCounts.keySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebalanceProduct(productId));
+            } catch (Exception e) {
+                log.warn("Bucket rebalance başarısız: productId={}", productId, e);
+            }
+        }
+    }
+
+    private void rebalanceProduct(Long productId) {
+        Inventory inventory = inventoryRepository.findByProductIdForUpdate(productId).orElse(null);
+        List<InventoryBucket> locked = bucketRepository.findByProductIdForUpdate(productId);
+        if (inventory == null || locked.isEmpty()) {
+            return;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int total = inventory.getStock();
+        for (InventoryBucket bucket : locked) {
+            min = Math.min(min, bucket.getStock());
+            max = Math.max(max, bucket.getStock());
+            total += bucket.getStock();
+        }
+        if (inventory.getStock() == 0 && max - min <= rebalanceThreshold) {
+            return;
+        }
+
+        int[] shares = evenShares(total, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setStock(shares[i]);
+        }
+        inventory.setStock(0);
+        log.debug("Bucket'lar dengelendi: productId={}, toplam={}, bucket={}", productId, total, locked.size());
+    }
+
+    private static int[] evenShares(int total, int buckets) {
+        int[] shares = new int[buckets];
+        for (int i = 0; i < buckets; i++) {
+            shares[i] = total / buckets + (i < total % buckets ? 1 : 0);
+        }
+        return shares;
+    }
+}
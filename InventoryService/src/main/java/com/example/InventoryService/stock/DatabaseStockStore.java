@@ -0,0 +1,174 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.event.OrderItem;
+import com.example.InventoryService.repository.InventoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Component
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockStore implements StockStore {
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseStockStore(InventoryRepository inventoryRepository, JdbcTemplate jdbcTemplate) {
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public ReservationResult reserve(Long orderId, Long productId, int quantity) {
+        if (inventoryRepository.reserveStock(productId, quantity) == 1) {
+            return ReservationResult.RESERVED;
+        }
+        return inventoryRepository.existsByProductId(productId)
+                ? ReservationResult.INSUFFICIENT_STOCK
+                : ReservationResult.NOT_FOUND;
+    }
+
+    @Override
+    public boolean release(Long orderId, Long productId, int quantity) {
+        return inventoryRepository.releaseStock(productId, quantity) == 1;
+    }
+
+    @Override
+    public boolean restock(Long productId, int quantity) {
+        return inventoryRepository.releaseStock(productId, quantity) == 1;
+    }
+
+    @Override
+    public Integer available(Long productId) {
+        return inventoryRepository.findByProductId(productId).map(Inventory::getStock).orElse(null);
+    }
+
+    @Override
+    public Map<Long, Integer> availableAll(Collection<Long> productIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+            stocks.put(inventory.getProductId(), inventory.getStock());
+        }
+        return stocks;
+    }
+
+    /**
+     * Stok girişleri productId sırasıyla tek bir JDBC batch'inde uygulanır.
+     */
+    @Override
+    @Transactional
+    public List<Long> restockAll(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(new TreeMap<>(deltas).entrySet());
+        int[] updated = jdbcTemplate.batchUpdate("update inventory set stock = stock + ? where product_id = ?",
+                sorted, sorted.size(), (ps, delta) -> {
+                    ps.setInt(1, delta.getValue());
+                    ps.setLong(2, delta.getKey());
+                })[0];
+        List<Long> applied = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (updated[i] != 0) {
+                applied.add(sorted.get(i).getKey());
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Tüm satırlar productId sırasıyla tek bir JDBC batch'inde düşülür; sıralı kilit alımı
+     * eşzamanlı çok satırlı siparişler arasında deadlock'u önler. Sığmayan satır varsa
+     * aynı transaction içinde düşülen satırlar geri eklenir.
+     */
+    @Override
+    @Transactional
+    public ReservationOutcome reserveAll(Long orderId, List<OrderItem> lines) {
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(StockStore.sortedLines(lines).entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+                "update inventory set stock = stock - ? where product_id = ? and stock >= ?",
+                sorted, sorted.size(), (ps, line) -> {
+                    ps.setInt(1, line.getValue());
+                    ps.setLong(2, line.getKey());
+                    ps.setInt(3, line.getValue());
+                })[0];
+
+        Long failedProductId = null;
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (updated[i] == 0 && failedProductId == null) {
+                failedProductId = sorted.get(i).getKey();
+            } else if (updated[i] != 0) {
+                reserved.add(sorted.get(i));
+            }
+        }
+        if (failedProductId == null) {
+            return ReservationOutcome.reserved();
+        }
+
+        jdbcTemplate.batchUpdate("update inventory set stock = stock + ? where product_id = ?",
+                reserved, reserved.size(), (ps, line) -> {
+                    ps.setInt(1, line.getValue());
+                    ps.setLong(2, line.getKey());
+                });
+        return new ReservationOutcome(inventoryRepository.existsByProductId(failedProductId)
+                ? ReservationResult.INSUFFICIENT_STOCK
+                : ReservationResult.NOT_FOUND, failedProductId);
+    }
+
+    @Override
+    public ReservationResult[] reserveInOrder(Long productId, long[] orderIds, int[] quantities) {
+        ReservationResult[] results = new ReservationResult[quantities.length];
+        int total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        if (inventoryRepository.reserveStock(productId, total) == 1) {
+            Arrays.fill(results, ReservationResult.RESERVED);
+            return results;
+        }
+
+        Optional<Inventory> invOpt = inventoryRepository.findByProductId(productId);
+        if (invOpt.isEmpty()) {
+            Arrays.fill(results, ReservationResult.NOT_FOUND);
+            return results;
+        }
+
+        int remaining = invOpt.get().getStock();
+        int acceptedTotal = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] <= remaining) {
+                results[i] = ReservationResult.RESERVED;
+                acceptedTotal += quantities[i];
+                remaining -= quantities[i];
+            } else {
+                results[i] = ReservationResult.INSUFFICIENT_STOCK;
+            }
+        }
+
+        if (acceptedTotal == 0 || inventoryRepository.reserveStock(productId, acceptedTotal) == 1) {
+            return results;
+        }
+
+        // Okuma ile toplu düşüm arasında stok değişti; kabul edilenler tek tek denenir.
+        for (int i = 0; i < quantities.length; i++) {
+            if (results[i] == ReservationResult.RESERVED
+                    && inventoryRepository.reserveStock(productId, quantities[i]) == 0) {
+                results[i] = ReservationResult.INSUFFICIENT_STOCK;
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.idempotency.ProcessedEventStore;
+import com.example.InventoryService.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Stok seviyelerini bellekte tutan, productId hash'ine göre shard'lanmış tek-yazıcılı motor.
+ * Değişiklikler write-behind olarak birleştirilip toplu UPDATE ile Postgres'e yazılır.
+ *
+ * Kurtarma kuralı: işlenen event'lerin processed_event kayıtları seviyelerle aynı flush
+ * transaction'ında yazılır; Kafka offset'leri yalnızca bu flush commit edildikten sonra
+ * onaylanır (afterDurable). Çökme durumunda bellek kaybolur, seviyeler
+ * veritabanından yeniden yüklenir ve onaylanmamış (flush edilmemiş) event'ler Kafka'dan
+ * tekrar işlenir. Bu mod tek bir InventoryService instance'ı ile çalıştırılmalıdır.
+ *
+ * Bellekte olmayan ürünler shard thread'inde değil çağıran thread'de veritabanından yüklenir;
+ * böylece yeni ya da bilinmeyen bir SKU aynı shard'daki diğer ürünleri bekletmez. Bulunamayan
+ * ürünler missing-ttl-ms boyunca hatırlanır ve o süre içinde tekrar sorgulanmaz.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "memory")
+public class InMemoryStockEngine implements StockStore, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStockEngine.class);
+    private static final int MISSING = Integer.MIN_VALUE;
+    private static final int MAX_MISSING_ENTRIES = 10_000;
+    private static final Object UNKNOWN = new Object();
+
+    private final InventoryRepository inventoryRepository;
+    private final ProcessedEventStore processedEventStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final long flushIntervalMs;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentLinkedQueue<Runnable> pendingCallbacks = new ConcurrentLinkedQueue<>();
+    private final List<Runnable> retryCallbacks = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Object[]> pendingProcessed = new ConcurrentLinkedQueue<>();
+    private final List<Object[]> retryProcessed = new ArrayList<>();
+    private final Object flushLock = new Object();
+    private final Map<Long, Long> missingUntil = new ConcurrentHashMap<>();
+    private final long missingTtlNanos;
+    private volatile boolean running;
+
+    public InMemoryStockEngine(InventoryRepository inventoryRepository,
+                               ProcessedEventStore processedEventStore,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${inventory.stock.memory.shards:4}") int shardCount,
+                               @Value("${inventory.stock.memory.flush-interval-ms:50}") long flushIntervalMs,
+                               @Value("${inventory.stock.memory.missing-ttl-ms:5000}") long missingTtlMs) {
+        this.inventoryRepository = inventoryRepository;
+        this.processedEventStore = processedEventStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMs = flushIntervalMs;
+        this.missingTtlNanos = TimeUnit.MILLISECONDS.toNanos(missingTtlMs);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void load() {
+        int[] loaded = new int[1];
+        jdbcTemplate.query("select product_id, stock from inventory", rs -> {
+            long productId = rs.getLong(1);
+            shardFor(productId).levels.put(productId, rs.getInt(2));
+            loaded[0]++;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Bellek içi stok motoru yüklendi: ürün sayısı={}, shard={}, flushInterval={}ms",
+                loaded[0], shards.length, flushIntervalMs);
+    }
+
+    @Override
+    public ReservationResult reserve(Long orderId, Long productId, int quantity) {
+        return withLevel(productId, level -> {
+            if (level < quantity) {
+                return ReservationResult.INSUFFICIENT_STOCK;
+            }
+            shardFor(productId).update(productId, level - quantity);
+            return ReservationResult.RESERVED;
+        }, () -> ReservationResult.NOT_FOUND);
+    }
+
+    @Override
+    public boolean release(Long orderId, Long productId, int quantity) {
+        return withLevel(productId, level -> {
+            shardFor(productId).update(productId, level + quantity);
+            return true;
+        }, () -> false);
+    }
+
+    @Override
+    public boolean restock(Long productId, int quantity) {
+        return release(null, productId, quantity);
+    }
+
+    @Override
+    public ReservationResult[] reserveInOrder(Long productId, long[] orderIds, int[] quantities) {
+        return withLevel(productId, level -> {
+            ReservationResult[] results = new ReservationResult[quantities.length];
+            int remaining = level;
+            for (int i = 0; i < quantities.length; i++) {
+                if (quantities[i] <= remaining) {
+                    remaining -= quantities[i];
+                    results[i] = ReservationResult.RESERVED;
+                } else {
+                    results[i] = ReservationResult.INSUFFICIENT_STOCK;
+                }
+            }
+            if (remaining != level) {
+                shardFor(productId).update(productId, remaining);
+            }
+            return results;
+        }, () -> {
+            ReservationResult[] results = new ReservationResult[quantities.length];
+            Arrays.fill(results, ReservationResult.NOT_FOUND);
+            return results;
+        });
+    }
+
+    @Override
+    public Integer available(Long productId) {
+        return withLevel(productId, level -> level, () -> null);
+    }
+
+    /**
+     * task ürünün shard thread'inde, bellekteki seviyeyle çalışır. Ürün bellekte yoksa shard
+     * bırakılır, kayıt çağıran thread'de yüklenip shard'a verilir ve task tekrar denenir.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T withLevel(long productId, IntFunction<T> task, Supplier<T> notFound) {
+        Shard shard = shardFor(productId);
+        Object result = shard.call(() -> {
+            int level = shard.levels.get(productId);
+            return level == MISSING ? UNKNOWN : task.apply(level);
+        });
+        if (result != UNKNOWN) {
+            return (T) result;
+        }
+        if (!loadMissing(shard, productId)) {
+            return notFound.get();
+        }
+        return shard.call(() -> {
+            int level = shard.levels.get(productId);
+            return level == MISSING ? notFound.get() : task.apply(level);
+        });
+    }
+
+    /**
+     * Başlangıçtan sonra oluşturulan kayıtları yükler. Bu arada başka bir çağrı ürünü yüklemiş
+     * ya da güncellemişse shard'daki değer korunur.
+     */
+    private boolean loadMissing(Shard shard, long productId) {
+        long now = System.nanoTime();
+        Long until = missingUntil.get(productId);
+        if (until != null && until - now > 0) {
+            return false;
+        }
+        Integer stock = inventoryRepository.findByProductId(productId).map(Inventory::getStock).orElse(null);
+        if (stock == null) {
+            if (missingUntil.size() >= MAX_MISSING_ENTRIES) {
+                missingUntil.values().removeIf(expiry -> expiry - now <= 0);
+            }
+            missingUntil.put(productId, now + missingTtlNanos);
+            return false;
+        }
+        missingUntil.remove(productId);
+        shard.call(() -> {
+            if (shard.levels.get(productId) == MISSING) {
+                shard.levels.put(productId, stock);
+            }
+            return null;
+        });
+        return true;
+    }
+
+    @Override
+    public void afterDurable(Runnable callback) {
+        pendingCallbacks.add(callback);
+    }
+
+    @Override
+    public void recordProcessed(String topic, Long orderId) {
+        pendingProcessed.add(new Object[]{topic, orderId});
+    }
+
+    @Override
+    public boolean writeBehind() {
+        return true;
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            // Callback'ler ve işlendi kayıtları dirty snapshot'tan önce alınır; böylece onaylanan her
+            // değişiklik bu flush'a dahildir. Bir event'in kaydı ack'inden önce kuyruğa girdiği için
+            // callback'lerden sonra alınan kayıtlar, alınan her ack'in kaydını içerir.
+            List<Runnable> callbacks = new ArrayList<>(retryCallbacks);
+            retryCallbacks.clear();
+            Runnable callback;
+            while ((callback = pendingCallbacks.poll()) != null) {
+                callbacks.add(callback);
+            }
+            List<Object[]> processed = new ArrayList<>(retryProcessed);
+            retryProcessed.clear();
+            Object[] key;
+            while ((key = pendingProcessed.poll()) != null) {
+                processed.add(key);
+            }
+
+            List<Object[]> batch = new ArrayList<>();
+            for (Shard shard : shards) {
+                shard.call(() -> {
+                    shard.dirty.forEach((productId, level) -> batch.add(new Object[]{level, productId}));
+                    shard.dirty.clear();
+                    return null;
+                });
+            }
+
+            if (!batch.isEmpty() || !processed.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (!batch.isEmpty()) {
+                            jdbcTemplate.batchUpdate("update inventory set stock = ? where product_id = ?", batch);
+                        }
+                        if (!processed.isEmpty()) {
+                            processedEventStore.recordAll(processed);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    markDirtyAgain(batch);
+                    retryCallbacks.addAll(callbacks);
+                    retryProcessed.addAll(processed);
+                    throw e;
+                }
+            }
+            callbacks.forEach(Runnable::run);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Stok seviyeleri veritabanına yazılamadı, bir sonraki flush'ta tekrar denenecek", e);
+        }
+    }
+
+    private void markDirtyAgain(List<Object[]> batch) {
+        for (Shard shard : shards) {
+            shard.call(() -> {
+                for (Object[] row : batch) {
+                    long productId = (Long) row[1];
+                    if (shardFor(productId) == shard && !shard.dirty.containsKey(productId)) {
+                        shard.dirty.put(productId, shard.levels.get(productId));
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    private Shard shardFor(long productId) {
+        return shards[(int) Math.floorMod(productId * 0x9E3779B97F4A7C15L >>> 32, (long) shards.length)];
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Kafka listener container'larından önce durdurulur; son flush'ın offset onayları
+     * container'lar kapanırken commit edilir.
+     */
+    @Override
+    public void stop() {
+        flushQuietly();
+        running = false;
+        log.info("Bellek içi stok motoru kapanış flush'ı tamamlandı");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        for (Shard shard : shards) {
+            shard.writer.shutdown();
+        }
+    }
+
+    private final class Shard {
+        private final LongIntHashMap levels = new LongIntHashMap(1024, MISSING);
+        private final LongIntHashMap dirty = new LongIntHashMap(256, MISSING);
+        private final ExecutorService writer;
+
+        private Shard(int index) {
+            this.writer = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "stock-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private void update(long productId, int level) {
+            levels.put(productId, level);
+            dirty.put(productId, level);
+        }
+
+        private <T> T call(Supplier<T> task) {
+            try {
+                return writer.submit(task::get).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Stok shard çağrısı kesildi", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
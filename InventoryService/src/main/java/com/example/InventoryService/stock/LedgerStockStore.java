@@ -0,0 +1,183 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.enums.MovementType;
+import com.example.InventoryService.enums.ReservationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Stoğu yerinde güncellemek yerine her rezervasyon, iade ve stok girişini
+ * stock_movement tablosuna ekler. Güncel stok = snapshot + id'si last_movement_id'den büyük hareketler.
+ * Yazma yolunda hiçbir satır güncellenmez; inventory satırı yalnızca snapshot'ın ilk değeridir.
+ *
+ * Sıralama ürünün snapshot satırındaki kilitle yapılır. Rezervasyonlar FOR NO KEY UPDATE alır ve
+ * aynı ürün için birbirini bekler; release ve restock FOR KEY SHARE alır, birbirini ve
+ * rezervasyonları beklemez. Compactor FOR UPDATE ile hepsinin commit edilmesini bekler; böylece
+ * watermark'ı ilerletirken henüz commit edilmemiş bir hareketi atlayamaz. Compactor yalnızca
+ * snapshot satırını günceller.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock.mode", havingValue = "ledger")
+public class LedgerStockStore implements StockStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerStockStore.class);
+
+    private static final String LOCK_FOR_RESERVATION =
+            "select 1 from stock_snapshot where product_id = ? for no key update";
+
+    private static final String LOCK_FOR_APPEND =
+            "select 1 from stock_snapshot where product_id = ? for key share";
+
+    private static final String LOCK_FOR_COMPACTION =
+            "select 1 from stock_snapshot where product_id = ? for update";
+
+    private static final String INSERT_RESERVATION =
+            "insert into stock_movement (product_id, order_id, type, quantity, created_at) " +
+            "select s.product_id, ?, 'RESERVATION', ?, now() from stock_snapshot s " +
+            "where s.product_id = ? and s.stock + coalesce((select sum(m.quantity) from stock_movement m " +
+            "where m.product_id = s.product_id and m.id > s.last_movement_id), 0) >= ? " +
+            "on conflict (order_id, product_id, type) do nothing";
+
+    private static final String INSERT_MOVEMENT =
+            "insert into stock_movement (product_id, order_id, type, quantity, created_at) " +
+            "values (?, ?, ?, ?, now()) on conflict (order_id, product_id, type) do nothing";
+
+    private static final String SEED_SNAPSHOT =
+            "insert into stock_snapshot (product_id, stock, last_movement_id, taken_at) " +
+            "select product_id, stock, 0, now() from inventory where product_id = ? " +
+            "on conflict (product_id) do nothing";
+
+    private static final String CURRENT_STOCK =
+            "select s.stock + coalesce((select sum(m.quantity) from stock_movement m " +
+            "where m.product_id = s.product_id and m.id > s.last_movement_id), 0) " +
+            "from stock_snapshot s where s.product_id = ?";
+
+    private static final String PENDING_PRODUCTS =
+            "select distinct m.product_id from stock_movement m join stock_snapshot s on s.product_id = m.product_id " +
+            "where m.id > s.last_movement_id";
+
+    private static final String COMPACT_PRODUCT =
+            "update stock_snapshot s set stock = s.stock + d.delta, last_movement_id = d.max_id, taken_at = now() " +
+            "from (select sum(m.quantity) as delta, max(m.id) as max_id from stock_movement m, stock_snapshot x " +
+            "where x.product_id = ? and m.product_id = x.product_id and m.id > x.last_movement_id) d " +
+            "where s.product_id = ? and d.max_id is not null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerStockStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public ReservationResult reserve(Long orderId, Long productId, int quantity) {
+        if (!lock(LOCK_FOR_RESERVATION, productId)) {
+            if (!seed(productId)) {
+                return ReservationResult.NOT_FOUND;
+            }
+            lock(LOCK_FOR_RESERVATION, productId);
+        }
+        if (jdbcTemplate.update(INSERT_RESERVATION, orderId, -quantity, productId, quantity) == 1) {
+            return ReservationResult.RESERVED;
+        }
+        if (hasMovement(orderId, productId, MovementType.RESERVATION)) {
+            log.info("Rezervasyon zaten kayıtlı, tekrar uygulanmadı: orderId={}, productId={}", orderId, productId);
+            return ReservationResult.RESERVED;
+        }
+        return ReservationResult.INSUFFICIENT_STOCK;
+    }
+
+    @Override
+    @Transactional
+    public boolean release(Long orderId, Long productId, int quantity) {
+        return append(orderId, productId, MovementType.RELEASE, quantity);
+    }
+
+    @Override
+    @Transactional
+    public boolean restock(Long productId, int quantity) {
+        return append(null, productId, MovementType.RESTOCK, quantity);
+    }
+
+    @Override
+    public Integer available(Long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(CURRENT_STOCK, Integer.class, productId);
+        if (!stock.isEmpty()) {
+            return stock.get(0);
+        }
+        List<Integer> seed = jdbcTemplate.queryForList("select stock from inventory where product_id = ?",
+                Integer.class, productId);
+        return seed.isEmpty() ? null : seed.get(0);
+    }
+
+    /**
+     * Watermark'tan sonraki hareketleri snapshot'a katlar. Hareket satırlarına dokunulmaz; denetim
+     * kaydı olarak silinmezler.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock.ledger.compaction-interval-ms:60000}")
+    public void compact() {
+        List<Long> productIds = jdbcTemplate.queryForList(PENDING_PRODUCTS, Long.class);
+        for (Long productId : productIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock(LOCK_FOR_COMPACTION, productId);
+                    jdbcTemplate.update(COMPACT_PRODUCT, productId, productId);
+                });
+            } catch (Exception e) {
+                log.warn("Stok hareketleri snapshot'a katlanamadı: productId={}", productId, e);
+            }
+        }
+        if (!productIds.isEmpty()) {
+            log.info("Stok snapshot'ları güncellendi: ürün sayısı={}", productIds.size());
+        }
+    }
+
+    private boolean append(Long orderId, Long productId, MovementType type, int quantity) {
+        if (!lock(LOCK_FOR_APPEND, productId)) {
+            if (!seed(productId)) {
+                return false;
+            }
+            lock(LOCK_FOR_APPEND, productId);
+        }
+        if (jdbcTemplate.update(INSERT_MOVEMENT, productId, orderId, type.name(), quantity) == 1) {
+            return true;
+        }
+        log.info("Stok hareketi zaten kayıtlı, tekrar uygulanmadı: orderId={}, productId={}, type={}",
+                orderId, productId, type);
+        return true;
+    }
+
+    /**
+     * Snapshot'ı inventory satırından oluşturur; eşzamanlı çağrılar birbirinin kaydını ezmez.
+     */
+    private boolean seed(Long productId) {
+        jdbcTemplate.update(SEED_SNAPSHOT, productId);
+        return snapshotExists(productId);
+    }
+
+    private boolean lock(String sql, Long productId) {
+        return !jdbcTemplate.queryForList(sql, Integer.class, productId).isEmpty();
+    }
+
+    private boolean snapshotExists(Long productId) {
+        return !jdbcTemplate.queryForList("select 1 from stock_snapshot where product_id = ?", Integer.class, productId)
+                .isEmpty();
+    }
+
+    private boolean hasMovement(Long orderId, Long productId, MovementType type) {
+        return !jdbcTemplate.queryForList(
+                "select 1 from stock_movement where order_id = ? and product_id = ? and type = ?",
+                Integer.class, orderId, productId, type.name()).isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.enums.ReservationResult;
+
+/**
+ * Çok satırlı rezervasyonun sonucu; başarısızsa ilk sığmayan ürünü taşır.
+ */
+public record ReservationOutcome(
+        ReservationResult result,
+        Long failedProductId
+) {
+
+    public static ReservationOutcome reserved() {
+        return new ReservationOutcome(ReservationResult.RESERVED, null);
+    }
+
+    public boolean isReserved() {
+        return result == ReservationResult.RESERVED;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.event.OrderItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stok rezervasyonlarının uygulandığı yer. Varsayılan implementasyon doğrudan
+ * veritabanıdır; inventory.stock.mode ile diğer modlar seçilir.
+ */
+public interface StockStore {
+
+    ReservationResult reserve(Long orderId, Long productId, int quantity);
+
+    boolean release(Long orderId, Long productId, int quantity);
+
+    /**
+     * Siparişe bağlı olmayan stok girişi; kayıt yoksa false.
+     */
+    boolean restock(Long productId, int quantity);
+
+    /**
+     * Ürünün toplam kullanılabilir stoğu; kayıt yoksa null.
+     */
+    Integer available(Long productId);
+
+    /**
+     * Birden fazla ürünün stoğunu tek seferde okur; kaydı olmayan ürünler sonuçta yer almaz.
+     */
+    default Map<Long, Integer> availableAll(Collection<Long> productIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (Long productId : productIds) {
+            Integer stock = available(productId);
+            if (stock != null) {
+                stocks.put(productId, stock);
+            }
+        }
+        return stocks;
+    }
+
+    /**
+     * Toplu stok girişi; uygulanan ürünleri döner, kaydı olmayanlar atlanır.
+     */
+    default List<Long> restockAll(Map<Long, Integer> deltas) {
+        List<Long> applied = new ArrayList<>();
+        for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+            if (restock(delta.getKey(), delta.getValue())) {
+                applied.add(delta.getKey());
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Aynı ürüne ait siparişleri geliş sırasıyla rezerve eder; sığmayanlar
+     * INSUFFICIENT_STOCK olarak döner.
+     */
+    default ReservationResult[] reserveInOrder(Long productId, long[] orderIds, int[] quantities) {
+        ReservationResult[] results = new ReservationResult[quantities.length];
+        ReservationResult all = reserve(orderIds[0], productId, Arrays.stream(quantities).sum());
+        if (all != ReservationResult.INSUFFICIENT_STOCK) {
+            Arrays.fill(results, all);
+            return results;
+        }
+        for (int i = 0; i < quantities.length; i++) {
+            results[i] = reserve(orderIds[i], productId, quantities[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Siparişin tüm satırlarını ya hep ya hiç rezerve eder. Satırlar productId sırasıyla
+     * işlenir; bir satır sığmazsa önceden düşülenler geri eklenir.
+     */
+    default ReservationOutcome reserveAll(Long orderId, List<OrderItem> lines) {
+        Map<Long, Integer> sorted = sortedLines(lines);
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : sorted.entrySet()) {
+            ReservationResult result = reserve(orderId, line.getKey(), line.getValue());
+            if (result != ReservationResult.RESERVED) {
+                for (Map.Entry<Long, Integer> done : reserved) {
+                    release(orderId, done.getKey(), done.getValue());
+                }
+                return new ReservationOutcome(result, line.getKey());
+            }
+            reserved.add(line);
+        }
+        return ReservationOutcome.reserved();
+    }
+
+    /**
+     * Aynı ürün birden fazla satırda geçiyorsa miktarları birleştirir ve productId'ye göre sıralar.
+     */
+    static Map<Long, Integer> sortedLines(List<OrderItem> lines) {
+        Map<Long, Integer> sorted = new TreeMap<>();
+        for (OrderItem line : lines) {
+            sorted.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        return sorted;
+    }
+
+    /**
+     * Şu ana kadar uygulanan değişiklikler kalıcı hale geldiğinde callback'i çalıştırır.
+     * Kafka offset'leri buradan onaylanır.
+     */
+    default void afterDurable(Runnable callback) {
+        callback.run();
+    }
+
+    /**
+     * Write-behind modda event'in işlendi kaydını, o ana kadarki değişiklikleri kalıcı yapan yazımla
+     * aynı transaction'a ekler. Diğer modlarda kayıt listener transaction'ında yazılır.
+     */
+    default void recordProcessed(String topic, Long orderId) {
+        throw new UnsupportedOperationException("İşlendi kaydı yalnızca write-behind modda ertelenir");
+    }
+
+    /**
+     * Değişiklikler listener transaction'ı dışında, sonradan kalıcı hale geliyorsa true.
+     */
+    default boolean writeBehind() {
+        return false;
+    }
+}
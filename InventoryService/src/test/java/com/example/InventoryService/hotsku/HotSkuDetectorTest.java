@@ -0,0 +1,39 @@
+package com.example.InventoryService.hotsku;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotSkuDetectorTest {
+
+    @Test
+    void countsFromDifferentThreadsAreMerged() throws InterruptedException {
+        HotSkuDetector detector = new HotSkuDetector(new SimpleMeterRegistry(), 16, 3, 60);
+        Thread first = new Thread(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                detector.record(1L, false);
+            }
+        });
+        Thread second = new Thread(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                detector.record(1L, i % 2 == 0);
+                detector.record(2L, false);
+            }
+        });
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        detector.record(3L, false);
+
+        List<HotSku> top = detector.topK();
+
+        assertThat(top).extracting(HotSku::productId).containsExactly(1L, 2L, 3L);
+        assertThat(top.get(0).estimatedCount()).isEqualTo(2_000);
+        assertThat(top.get(0).failureRatio()).isEqualTo(0.25);
+        assertThat(top.get(1).estimatedCount()).isEqualTo(1_000);
+    }
+}
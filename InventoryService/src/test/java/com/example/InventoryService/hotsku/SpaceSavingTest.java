@@ -0,0 +1,44 @@
+package com.example.InventoryService.hotsku;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void heavyHittersSurviveLongTailWithinCapacity() {
+        SpaceSaving sketch = new SpaceSaving(16);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 4 == 0) {
+                sketch.record(1L, false);
+            } else if (i % 10 == 1) {
+                sketch.record(2L, i % 20 == 1);
+            } else {
+                sketch.record(1_000 + random.nextInt(50_000), false);
+            }
+        }
+
+        assertThat(sketch.size()).isEqualTo(16);
+        assertThat(sketch.countOf(1L)).isGreaterThanOrEqualTo(25_000);
+        assertThat(sketch.countOf(2L)).isGreaterThanOrEqualTo(10_000);
+        assertThat(sketch.failuresOf(2L)).isEqualTo(5_000);
+    }
+
+    @Test
+    void countsAreExactUntilCapacityIsReached() {
+        SpaceSaving sketch = new SpaceSaving(4);
+        for (int i = 0; i < 3; i++) {
+            sketch.record(10L, false);
+        }
+        sketch.record(20L, true);
+
+        assertThat(sketch.countOf(10L)).isEqualTo(3);
+        assertThat(sketch.countOf(20L)).isEqualTo(1);
+        assertThat(sketch.failuresOf(20L)).isEqualTo(1);
+        assertThat(sketch.countOf(30L)).isZero();
+    }
+}
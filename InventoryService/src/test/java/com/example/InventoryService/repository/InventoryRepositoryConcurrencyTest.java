@@ -0,0 +1,99 @@
+package com.example.InventoryService.repository;
+
+import com.example.InventoryService.entity.Inventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryRepositoryConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+    private static final int INITIAL_STOCK = 300;
+    private static final long PRODUCT_ID = 42L;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void reserveStockNeverOversellsUnderContention() throws Exception {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(INITIAL_STOCK);
+        inventoryRepository.save(inventory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (inventoryRepository.reserveStock(PRODUCT_ID, 1) == 1) {
+                        reserved.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Inventory after = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(reserved.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK);
+        assertThat(after.getStock()).isZero();
+    }
+
+    @Test
+    void reserveStockReportsMissingAndInsufficientRows() {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(1);
+        inventoryRepository.save(inventory);
+
+        assertThat(inventoryRepository.reserveStock(PRODUCT_ID, 2)).isZero();
+        assertThat(inventoryRepository.existsByProductId(PRODUCT_ID)).isTrue();
+        assertThat(inventoryRepository.reserveStock(PRODUCT_ID + 1, 1)).isZero();
+        assertThat(inventoryRepository.existsByProductId(PRODUCT_ID + 1)).isFalse();
+
+        assertThat(inventoryRepository.releaseStock(PRODUCT_ID, 4)).isEqualTo(1);
+        assertThat(inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow().getStock()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.repository.InventoryBucketRepository;
+import com.example.InventoryService.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:buckets;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "inventory.stock.mode=bucketed"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BucketedStockStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BucketedStockStoreTest {
+
+    private static final long PRODUCT_ID = 7L;
+
+    @Autowired
+    private BucketedStockStore stockStore;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryBucketRepository bucketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        bucketRepository.deleteAll();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void reservationsForSameHotProductInOneTransactionDoNotOversell() {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(10);
+        inventoryRepository.save(inventory);
+        stockStore.split(PRODUCT_ID, 2);
+
+        // 6 ve 2 hiçbir bucket'a tek başına sığmaz ve fallback yoluna düşer; 3 hızlı yoldan geçer.
+        List<ReservationResult> results = new TransactionTemplate(transactionManager).execute(status -> List.of(
+                stockStore.reserve(1L, PRODUCT_ID, 6),
+                stockStore.reserve(2L, PRODUCT_ID, 3),
+                stockStore.reserve(3L, PRODUCT_ID, 2)));
+
+        assertThat(results).containsExactly(
+                ReservationResult.RESERVED, ReservationResult.RESERVED, ReservationResult.INSUFFICIENT_STOCK);
+        assertThat(bucketRepository.sumStockByProductId(PRODUCT_ID)).isEqualTo(1);
+        assertThat(stockStore.available(PRODUCT_ID)).isEqualTo(1);
+    }
+
+    @Test
+    void fallbackUsesRestockNotYetMovedIntoBuckets() {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(PRODUCT_ID);
+        inventory.setStock(4);
+        inventoryRepository.save(inventory);
+        stockStore.split(PRODUCT_ID, 2);
+        stockStore.restock(PRODUCT_ID, 5);
+
+        // Bucket'larda 2 + 2, satırda 5 var; rebalancer henüz çalışmadı.
+        ReservationResult result = new TransactionTemplate(transactionManager).execute(status ->
+                stockStore.reserve(1L, PRODUCT_ID, 7));
+
+        assertThat(result).isEqualTo(ReservationResult.RESERVED);
+        assertThat(inventoryRepository.findByProductId(PRODUCT_ID)).get()
+                .extracting(Inventory::getStock).isEqualTo(0);
+        assertThat(bucketRepository.sumStockByProductId(PRODUCT_ID)).isEqualTo(2);
+        assertThat(stockStore.available(PRODUCT_ID)).isEqualTo(2);
+    }
+}
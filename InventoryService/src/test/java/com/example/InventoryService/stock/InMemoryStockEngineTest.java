@@ -0,0 +1,135 @@
+package com.example.InventoryService.stock;
+
+import com.example.InventoryService.entity.Inventory;
+import com.example.InventoryService.enums.ReservationResult;
+import com.example.InventoryService.idempotency.ProcessedEventStore;
+import com.example.InventoryService.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:memory-engine;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InMemoryStockEngineTest {
+
+    private static final long PRODUCT_ID = 5L;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProcessedEventStore processedEventStore;
+    private InMemoryStockEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        save(PRODUCT_ID, 10);
+        processedEventStore = mock(ProcessedEventStore.class);
+        // Zamanlanmış flush testin ortasında çalışmasın diye aralık uzun tutulur.
+        engine = new InMemoryStockEngine(inventoryRepository, processedEventStore, jdbcTemplate,
+                transactionManager, 2, 60_000, 5_000);
+        engine.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        inventoryRepository.deleteAll();
+    }
+
+    @Test
+    void changesReachDatabaseOnlyOnFlushTogetherWithProcessedKeys() {
+        AtomicInteger acked = new AtomicInteger();
+
+        assertThat(engine.reserve(1L, PRODUCT_ID, 4)).isEqualTo(ReservationResult.RESERVED);
+        assertThat(engine.reserve(2L, PRODUCT_ID, 7)).isEqualTo(ReservationResult.INSUFFICIENT_STOCK);
+        assertThat(engine.release(3L, PRODUCT_ID, 1)).isTrue();
+        engine.recordProcessed("order-placed", 1L);
+        engine.afterDurable(acked::incrementAndGet);
+
+        assertThat(engine.available(PRODUCT_ID)).isEqualTo(7);
+        assertThat(stockInDatabase(PRODUCT_ID)).isEqualTo(10);
+        assertThat(acked).hasValue(0);
+
+        engine.flush();
+
+        assertThat(stockInDatabase(PRODUCT_ID)).isEqualTo(7);
+        assertThat(acked).hasValue(1);
+        verify(processedEventStore).recordAll(argThat(keys -> keys.size() == 1
+                && "order-placed".equals(keys.get(0)[0]) && Long.valueOf(1L).equals(keys.get(0)[1])));
+    }
+
+    @Test
+    void failedFlushKeepsLevelsDirtyAndRetriesCallbacks() {
+        doThrow(new IllegalStateException("processed_event yazılamadı"))
+                .doNothing()
+                .when(processedEventStore).recordAll(anyList());
+        AtomicInteger acked = new AtomicInteger();
+
+        engine.reserve(1L, PRODUCT_ID, 3);
+        engine.recordProcessed("order-placed", 1L);
+        engine.afterDurable(acked::incrementAndGet);
+
+        assertThatThrownBy(engine::flush).isInstanceOf(IllegalStateException.class);
+        // Seviye güncellemesi processed_event ile aynı transaction'da geri alındı.
+        assertThat(stockInDatabase(PRODUCT_ID)).isEqualTo(10);
+        assertThat(acked).hasValue(0);
+
+        engine.flush();
+
+        assertThat(stockInDatabase(PRODUCT_ID)).isEqualTo(7);
+        assertThat(acked).hasValue(1);
+        verify(processedEventStore, times(2)).recordAll(argThat(keys -> keys.size() == 1));
+    }
+
+    @Test
+    void productCreatedAfterStartupIsLoadedOnFirstUse() {
+        save(6L, 2);
+
+        assertThat(engine.reserve(1L, 6L, 2)).isEqualTo(ReservationResult.RESERVED);
+        assertThat(engine.reserve(2L, 99L, 1)).isEqualTo(ReservationResult.NOT_FOUND);
+        engine.flush();
+
+        assertThat(stockInDatabase(6L)).isZero();
+    }
+
+    private void save(long productId, int stock) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId(productId);
+        inventory.setStock(stock);
+        inventoryRepository.save(inventory);
+    }
+
+    private int stockInDatabase(long productId) {
+        return inventoryRepository.findByProductId(productId).orElseThrow().getStock();
+    }
+}
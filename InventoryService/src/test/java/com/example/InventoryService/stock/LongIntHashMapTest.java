@@ -0,0 +1,83 @@
+package com.example.InventoryService.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void putGetAndRemoveOnSmallTable() {
+        LongIntHashMap map = new LongIntHashMap(2, MISSING);
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1L, 11);
+
+        assertThat(map.get(1L)).isEqualTo(11);
+        assertThat(map.get(2L)).isEqualTo(20);
+        assertThat(map.get(3L)).isEqualTo(MISSING);
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(1L)).isTrue();
+        assertThat(map.remove(1L)).isFalse();
+        assertThat(map.containsKey(1L)).isFalse();
+        assertThat(map.get(2L)).isEqualTo(20);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keysStayReachableAfterRemovalsInsideCollisionChains() {
+        // Kapasite 4'te 12 anahtar: birkaç kez rehash olur, zincirler uzar ve
+        // backward-shift silme zincirin ortasından ve sarmalanan uçtan anahtar taşır.
+        LongIntHashMap map = new LongIntHashMap(2, MISSING);
+        for (long key = 0; key < 12; key++) {
+            map.put(key * 1024, (int) key);
+        }
+        for (long key = 0; key < 12; key += 3) {
+            assertThat(map.remove(key * 1024)).isTrue();
+        }
+
+        for (long key = 0; key < 12; key++) {
+            assertThat(map.get(key * 1024)).isEqualTo(key % 3 == 0 ? MISSING : (int) key);
+        }
+        assertThat(map.size()).isEqualTo(8);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(4, MISSING);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 2_500L;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        List<Long> seen = new ArrayList<>();
+        map.forEach((key, value) -> {
+            seen.add(key);
+            assertThat(expected.get(key)).isEqualTo(value);
+        });
+        assertThat(seen).hasSize(expected.size());
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(seen.get(0))).isEqualTo(MISSING);
+    }
+}
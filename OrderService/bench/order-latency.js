@@ -0,0 +1,22 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// product-service çağrısı yapan endpoint'e sabit eşzamanlılıkla yük bindirir.
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8093';
+const PRODUCT_ID = __ENV.PRODUCT_ID || '1';
+
+export const options = {
+    scenarios: {
+        orders: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 400),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const res = http.post(`${BASE_URL}/api/orders/test-circuit?productId=${PRODUCT_ID}`);
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
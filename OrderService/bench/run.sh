@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Platform ve virtual thread modlarını, product-service çağrısına 200 ms gecikme eklenmiş
+# halde aynı yükle karşılaştırır. Eureka, product-service ve Postgres ayakta olmalıdır.
+# bench profili ürün önbelleğini kapatır; aksi halde tüm istekler aynı ürünü sorduğu için
+# gecikmeyi yalnızca TTL başına bir çağrı öder ve iki mod önbellek isabetleri üzerinden ölçülürdü.
+# Gereken araçlar: k6, jq, curl. Kullanım: bench/run.sh [jar]
+set -euo pipefail
+
+JAR=${1:-target/OrderService-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8093}
+BASE_URL=${BASE_URL:-http://localhost:$PORT}
+OUT=${OUT:-bench/results}
+mkdir -p "$OUT"
+
+port_in_use() {
+    (exec 3<>"/dev/tcp/127.0.0.1/$PORT") 2>/dev/null
+}
+
+run_mode() {
+    local mode=$1 profiles=$2
+    # Önceki çalıştırmanın JVM'i portu hâlâ tutuyorsa health kontrolü yanlış süreci ölçerdi.
+    if port_in_use; then
+        echo "Port $PORT kullanımda, $mode çalıştırması başlatılmadı" >&2
+        exit 1
+    fi
+    java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" > "$OUT/$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true; wait $pid 2>/dev/null || true" RETURN
+
+    until curl -sf "$BASE_URL/actuator/health" > /dev/null; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode JVM'i başlamadan kapandı, bkz. $OUT/$mode.log" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+    k6 run --quiet -e BASE_URL="$BASE_URL" --summary-export "$OUT/$mode.json" bench/order-latency.js
+}
+
+run_mode platform bench
+run_mode virtual bench,virtual
+
+printf '%-10s %12s %10s %10s\n' mode req/s p50_ms p99_ms
+for mode in platform virtual; do
+    jq -r --arg mode "$mode" \
+        '[$mode, (.metrics.http_reqs.rate | floor), (.metrics.http_req_duration["p(50)"] | floor), (.metrics.http_req_duration["p(99)"] | floor)] | @tsv' \
+        "$OUT/$mode.json" | xargs printf '%-10s %12s %10s %10s\n'
+done
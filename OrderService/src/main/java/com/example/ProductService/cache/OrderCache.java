@@ -0,0 +1,198 @@
+package com.example.ProductService.cache;
+
+import com.example.ProductService.entity.Order;
+import com.example.ProductService.event.OrderCacheInvalidationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Saga'nın bitişini izlemek için sorgulanan sipariş kayıtlarının instance içi önbelleği.
+ * Boyut sınırı LRU ile, tazelik TTL ile korunur. Bu instance'ta yapılan her değişiklik girdiyi
+ * günceller ve order-cache-invalidation topic'ine yayınlanır; diğer replikalar kendi girdilerini
+ * siler. Yayın kaybolsa bile bir replikanın bayat veri döndürebileceği süre TTL ile sınırlıdır.
+ */
+@Component
+@Slf4j
+public class OrderCache {
+
+    public static final String INVALIDATION_TOPIC = "order-cache-invalidation";
+
+    private static final int STAMP_STRIPES = 4096;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final KafkaTemplate<String, OrderCacheInvalidationEvent> invalidationTemplate;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    /**
+     * Her güncelleme ve geçersizleme, siparişin düştüğü dilimin damgasını artırır. Loader okumaya
+     * başlamadan önce damgayı alır; okuma sürerken damga değiştiyse okuduğu kopya saklanmaz.
+     * Dilimler paylaşıldığı için yanlış pozitifler yalnızca fazladan bir miss'e yol açar.
+     */
+    private final long[] stamps = new long[STAMP_STRIPES];
+    private long stampSequence;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+    private final Timer hitAge;
+    private final Timer invalidationLag;
+
+    public OrderCache(KafkaTemplate<String, OrderCacheInvalidationEvent> invalidationTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${order.cache.max-size:10000}") int maxSize,
+                      @Value("${order.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.invalidationTemplate = invalidationTemplate;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+        this.invalidations = evictionCounter(meterRegistry, "invalidated");
+        this.hitAge = Timer.builder("order.cache.hit.age").register(meterRegistry);
+        this.invalidationLag = Timer.builder("order.cache.invalidation.lag").register(meterRegistry);
+        Gauge.builder("order.cache.size", this, OrderCache::size).register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("order.cache.evictions")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Önbellekteki taze kaydı döner; yoksa loader ile okur ve bulunan kaydı saklar.
+     */
+    public Optional<Order> get(Long orderId, Function<Long, Optional<Order>> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(orderId);
+            if (entry != null) {
+                long age = now - entry.loadedAt();
+                if (age < ttlNanos) {
+                    hits.increment();
+                    hitAge.record(Duration.ofNanos(age));
+                    return Optional.of(entry.order());
+                }
+                entries.remove(orderId);
+                expiredEvictions.increment();
+            }
+        }
+        misses.increment();
+        long stamp;
+        synchronized (entries) {
+            stamp = stamps[stripe(orderId)];
+        }
+        Optional<Order> loaded = loader.apply(orderId);
+        loaded.ifPresent(order -> storeIfUnchanged(order, stamp));
+        return loaded;
+    }
+
+    /**
+     * Bu instance'ta kaydedilen siparişin girdisini yeniler ve diğer replikalara bildirir.
+     */
+    public void update(Order order) {
+        store(order);
+        publish(order.getId());
+    }
+
+    /**
+     * Silinen siparişin girdisini kaldırır ve diğer replikalara bildirir.
+     */
+    public void evict(Long orderId) {
+        remove(orderId);
+        publish(orderId);
+    }
+
+    void onInvalidation(OrderCacheInvalidationEvent event) {
+        if (instanceId.equals(event.sourceInstance())) {
+            return;
+        }
+        if (event.changedAt() != null) {
+            invalidationLag.record(Duration.between(event.changedAt(), Instant.now()));
+        }
+        remove(event.orderId());
+    }
+
+    private void store(Order order) {
+        synchronized (entries) {
+            bump(order.getId());
+            entries.put(order.getId(), new Entry(order, System.nanoTime()));
+        }
+    }
+
+    private void storeIfUnchanged(Order order, long stamp) {
+        synchronized (entries) {
+            if (stamps[stripe(order.getId())] == stamp) {
+                entries.put(order.getId(), new Entry(order, System.nanoTime()));
+            }
+        }
+    }
+
+    private void bump(Long orderId) {
+        stamps[stripe(orderId)] = ++stampSequence;
+    }
+
+    private static int stripe(Long orderId) {
+        return (int) (orderId * 0x9E3779B97F4A7C15L >>> 52);
+    }
+
+    private void remove(Long orderId) {
+        synchronized (entries) {
+            bump(orderId);
+            if (entries.remove(orderId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void publish(Long orderId) {
+        invalidationTemplate.send(INVALIDATION_TOPIC, String.valueOf(orderId),
+                        new OrderCacheInvalidationEvent(orderId, instanceId, Instant.now()))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Önbellek geçersizleme yayınlanamadı: orderId={}", orderId, ex);
+                    }
+                });
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(Order order, long loadedAt) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ProductService.cache;
+
+import com.example.ProductService.completion.OrderCompletionRegistry;
+import com.example.ProductService.event.OrderCacheInvalidationEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+/**
+ * Her instance topic'in tüm partition'larını consumer group olmadan, elle atanmış olarak okur ve
+ * offset commit etmez; açılışta son offset'ten başlanır çünkü boş önbellekte silinecek girdi yoktur. Aynı mesaj, sonucu başka
+ * replikada işlenen siparişi bekleyen istemcileri de tamamlar.
+ */
+@Component
+public class OrderCacheInvalidationListener {
+
+    private final OrderCache orderCache;
+    private final OrderCompletionRegistry completionRegistry;
+
+    public OrderCacheInvalidationListener(OrderCache orderCache, OrderCompletionRegistry completionRegistry) {
+        this.orderCache = orderCache;
+        this.completionRegistry = completionRegistry;
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = OrderCache.INVALIDATION_TOPIC,
+            partitions = "0-#{${order.cache.invalidation.partitions:3} - 1}"),
+            containerFactory = "orderCacheInvalidationKafkaListenerContainerFactory")
+    public void handleInvalidation(OrderCacheInvalidationEvent event) {
+        orderCache.onInvalidation(event);
+        completionRegistry.changed(event.orderId());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.ProductService.client;
+
+import com.example.ProductService.dto.ProductDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ProductClient önünde boyut ve TTL sınırlı ürün önbelleği. Aynı ürün için eşzamanlı kaçırmalar
+ * tek bir Feign çağrısında birleştirilir; diğer çağıranlar o çağrının sonucunu bekler. TTL'i geçen
+ * girdiler max-stale süresi boyunca silinmez, circuit breaker açıkken stale() ile sunulabilir.
+ * order.product-cache.enabled=false iken her çağrı doğrudan Feign'e gider, birleştirme de yapılmaz.
+ */
+@Component
+public class CachedProductClient {
+
+    private final ProductClient productClient;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Map<Long, Entry> entries;
+    private final Map<Long, CompletableFuture<ProductDto>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter staleServed;
+
+    public CachedProductClient(ProductClient productClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.product-cache.enabled:true}") boolean enabled,
+                               @Value("${order.product-cache.max-size:5000}") int maxSize,
+                               @Value("${order.product-cache.ttl-seconds:30}") long ttlSeconds,
+                               @Value("${order.product-cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        this.productClient = productClient;
+        this.enabled = enabled;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.maxStaleNanos = Duration.ofSeconds(maxStaleSeconds).toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.staleServed = requestCounter(meterRegistry, "stale");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.product-cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public ProductDto getProduct(Long productId) {
+        if (!enabled) {
+            return productClient.getProductById(productId);
+        }
+        Entry entry = lookup(productId);
+        if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            return entry.product();
+        }
+
+        CompletableFuture<ProductDto> mine = new CompletableFuture<>();
+        CompletableFuture<ProductDto> existing = inFlight.putIfAbsent(productId, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        misses.increment();
+        try {
+            ProductDto product = productClient.getProductById(productId);
+            synchronized (entries) {
+                entries.put(productId, new Entry(product, System.nanoTime()));
+            }
+            mine.complete(product);
+            return product;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(productId, mine);
+        }
+    }
+
+    /**
+     * TTL'i geçmiş olsa da max-stale süresini aşmamış son bilinen ürün.
+     */
+    public Optional<ProductDto> stale(Long productId) {
+        Entry entry = lookup(productId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        staleServed.increment();
+        return Optional.of(entry.product());
+    }
+
+    private Entry lookup(Long productId) {
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry != null && System.nanoTime() - entry.loadedAt() >= maxStaleNanos) {
+                entries.remove(productId);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static ProductDto join(CompletableFuture<ProductDto> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(ProductDto product, long loadedAt) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ProductService.completion;
+
+import com.example.ProductService.entity.Order;
+import com.example.ProductService.enums.OrderStatus;
+import com.example.ProductService.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Saga sonucunu bekleyen istemcileri orderId'ye göre callback olarak tutar; bekleme sırasında
+ * thread bloke edilmez. Sonuç bu instance'ta işlendiğinde OrderEventListener, başka bir replikada
+ * işlendiğinde order-cache-invalidation mesajı bekleyenleri tamamlar.
+ */
+@Component
+public class OrderCompletionRegistry {
+
+    private final OrderRepository orderRepository;
+    private final Map<Long, Set<Consumer<Order>>> waiters = new ConcurrentHashMap<>();
+
+    public OrderCompletionRegistry(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        Gauge.builder("order.completion.waiters", waiters,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+    }
+
+    public static boolean isTerminal(OrderStatus status) {
+        return status != OrderStatus.PENDING;
+    }
+
+    /**
+     * Sipariş CONFIRMED/CANCELLED/FAILED olduğunda onComplete bir kez çağrılır. Kayıt, siparişin
+     * güncel durumu okunmadan önce yapılır; böylece arada tamamlanan sipariş kaçırılmaz.
+     * Sipariş yoksa boş döner; aksi halde beklemeyi iptal eden Runnable döner.
+     */
+    public Optional<Runnable> await(Long orderId, Consumer<Order> onComplete) {
+        AtomicBoolean done = new AtomicBoolean();
+        Consumer<Order> waiter = order -> {
+            if (done.compareAndSet(false, true)) {
+                onComplete.accept(order);
+            }
+        };
+        // Ekleme remove() ile aynı anahtar üzerinde atomik yapılır; aksi halde boşaldığı için
+        // map'ten çıkarılmakta olan bir kümeye eklenen bekleyen hiç tamamlanmazdı.
+        waiters.compute(orderId, (key, set) -> {
+            Set<Consumer<Order>> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(waiter);
+            return target;
+        });
+        Runnable cancel = () -> remove(orderId, waiter);
+
+        Optional<Order> current = orderRepository.findById(orderId);
+        if (current.isEmpty()) {
+            cancel.run();
+            return Optional.empty();
+        }
+        if (isTerminal(current.get().getStatus())) {
+            cancel.run();
+            waiter.accept(current.get());
+        }
+        return Optional.of(cancel);
+    }
+
+    public void completed(Order order) {
+        if (!isTerminal(order.getStatus())) {
+            return;
+        }
+        Set<Consumer<Order>> completed = waiters.remove(order.getId());
+        if (completed != null) {
+            completed.forEach(waiter -> waiter.accept(order));
+        }
+    }
+
+    /**
+     * Başka bir replikada değişen sipariş; yalnızca bekleyen varsa kayıt okunur.
+     */
+    public void changed(Long orderId) {
+        if (waiters.containsKey(orderId)) {
+            orderRepository.findById(orderId).ifPresent(this::completed);
+        }
+    }
+
+    private void remove(Long orderId, Consumer<Order> waiter) {
+        waiters.computeIfPresent(orderId, (key, set) -> {
+            set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ProductService.config;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Yalnızca bench profilinde: product-service çağrılarına sabit gecikme ekler; çağıran thread
+ * gerçek bir yavaş yanıtta olduğu gibi bu süre boyunca bekler.
+ */
+@Configuration
+@Profile("bench")
+public class BenchLatencyConfig {
+
+    @Bean
+    public RequestInterceptor productLatencyInterceptor(@Value("${order.bench.product-latency-ms:200}") long latencyMs) {
+        return template -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.example.ProductService.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -10,7 +11,9 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -19,10 +22,13 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.example.ProductService.cache.OrderCache;
+import com.example.ProductService.event.OrderCacheInvalidationEvent;
 import com.example.ProductService.event.OrderCancelledEvent;
 import com.example.ProductService.event.OrderEvent;
 import com.example.ProductService.event.PaymentConfirmedEvent;
 import com.example.ProductService.event.StockReleasedEvent;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 @Configuration
 public class KafkaConfig {
@@ -30,6 +36,40 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${order.compensation.concurrency:3}")
+    private int compensationConcurrency;
+
+    @Value("${order.listeners.shared.concurrency:3}")
+    private int sharedConcurrency;
+
+    @Value("${order.cache.invalidation.partitions:3}")
+    private int invalidationPartitions;
+
+    /**
+     * Listener partition'ları elle atadığı için sayı order.cache.invalidation.partitions ile aynı olmalıdır.
+     */
+    @Bean
+    public NewTopic orderCacheInvalidationTopic() {
+        return TopicBuilder.name(OrderCache.INVALIDATION_TOPIC)
+                .partitions(invalidationPartitions)
+                .build();
+    }
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Boot'un virtual thread ayarı yalnızca kendi oluşturduğu container factory'ye uygulanır;
+     * buradaki factory'lerin consumer thread'leri aynı ayara göre ayrıca seçilir.
+     */
+    private void configureExecutor(ConcurrentKafkaListenerContainerFactory<String, ?> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("order-kafka-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
     @Bean
     public ProducerFactory<String, OrderEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -37,6 +77,7 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -50,6 +91,7 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -62,6 +104,7 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, PaymentConfirmedEvent> factory
                 = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(paymentConfirmedConsumerFactory());
+        configureExecutor(factory);
         return factory;
     }
 
@@ -70,6 +113,7 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -82,6 +126,8 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, StockReleasedEvent> factory
                 = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(stockReleasedConsumerFactory());
+        configureExecutor(factory);
+        factory.setConcurrency(compensationConcurrency);
         return factory;
     }
 
@@ -90,6 +136,7 @@ public class KafkaConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -102,6 +149,121 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, OrderCancelledEvent> factory
                 = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(orderCancelledConsumerFactory());
+        configureExecutor(factory);
+        factory.setConcurrency(compensationConcurrency);
+        return factory;
+    }
+
+    @Bean
+    public ProducerFactory<String, OrderCacheInvalidationEvent> orderCacheInvalidationProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderCacheInvalidationEvent> orderCacheInvalidationKafkaTemplate() {
+        return new KafkaTemplate<>(orderCacheInvalidationProducerFactory());
+    }
+
+    /**
+     * group.id yoktur; offset commit edilmez ve her açılış auto.offset.reset ile son offset'ten başlar.
+     */
+    @Bean
+    public ConsumerFactory<String, OrderCacheInvalidationEvent> orderCacheInvalidationConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.example.ProductService.event.OrderCacheInvalidationEvent");
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderCacheInvalidationEvent> orderCacheInvalidationKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderCacheInvalidationEvent> factory
+                = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderCacheInvalidationConsumerFactory());
+        configureExecutor(factory);
+        return factory;
+    }
+
+    /**
+     * order.listeners.batch.enabled açıkken saga sonuç topic'leri poll batch'i halinde işlenir.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentConfirmedEvent> paymentConfirmedBatchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentConfirmedEvent> factory
+                = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(paymentConfirmedConsumerFactory());
+        factory.setBatchListener(true);
+        configureExecutor(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, StockReleasedEvent> stockReleasedBatchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, StockReleasedEvent> factory
+                = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(stockReleasedConsumerFactory());
+        factory.setConcurrency(compensationConcurrency);
+        factory.setBatchListener(true);
+        configureExecutor(factory);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderCancelledEvent> orderCancelledBatchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderCancelledEvent> factory
+                = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderCancelledConsumerFactory());
+        factory.setConcurrency(compensationConcurrency);
+        factory.setBatchListener(true);
+        configureExecutor(factory);
+        return factory;
+    }
+
+    /**
+     * order.listeners.shared.enabled açıkken order-group'un dinlediği saga topic'leri tek bir
+     * consumer ile okunur; değer tipi kaydın geldiği topic'e göre seçilir.
+     */
+    static final Map<String, Class<?>> SAGA_TOPIC_TYPES = Map.of(
+            "payment-confirmed", PaymentConfirmedEvent.class,
+            "order-cancelled", OrderCancelledEvent.class,
+            "stock-released", StockReleasedEvent.class);
+
+    @Bean
+    public ConsumerFactory<String, Object> sagaConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-group");
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        JsonDeserializer<Object> valueDeserializer = new JsonDeserializer<>();
+        valueDeserializer.setUseTypeHeaders(false);
+        valueDeserializer.setTypeResolver((topic, data, headers) -> {
+            Class<?> type = SAGA_TOPIC_TYPES.get(topic);
+            if (type == null) {
+                throw new IllegalStateException("Topic için event tipi tanımlı değil: " + topic);
+            }
+            return TypeFactory.defaultInstance().constructType(type);
+        });
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), valueDeserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> sagaKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory
+                = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(sagaConsumerFactory());
+        factory.setConcurrency(sharedConcurrency);
+        configureExecutor(factory);
         return factory;
     }
 }
@@ -1,24 +1,55 @@
 package com.example.ProductService.controller;
 
+import com.example.ProductService.completion.OrderCompletionRegistry;
+import com.example.ProductService.dto.BatchOrderResult;
+import com.example.ProductService.dto.OrderAccepted;
+import com.example.ProductService.dto.OrderFilter;
+import com.example.ProductService.dto.OrderPage;
 import com.example.ProductService.dto.OrderRequest;
 import com.example.ProductService.entity.Order;
+import com.example.ProductService.enums.OrderStatus;
+import com.example.ProductService.partition.OrderArchiveReader;
 import com.example.ProductService.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 @Slf4j
 public class OrderController {
 
+    private static final int STREAM_FLUSH_ROWS = 500;
+    private static final long MAX_COMPLETION_WAIT_MS = 60_000;
+    private static final long EVENTS_TIMEOUT_MS = 5 * 60_000;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final OrderCompletionRegistry completionRegistry;
+    private final OrderArchiveReader archiveReader;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ObjectMapper objectMapper,
+                           OrderCompletionRegistry completionRegistry, OrderArchiveReader archiveReader) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.completionRegistry = completionRegistry;
+        this.archiveReader = archiveReader;
     }
 
     @GetMapping
@@ -26,6 +57,69 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<OrderPage> getOrderPage(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderPage(new OrderFilter(status, email, from, to), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Filtreye uyan siparişleri satır satır NDJSON olarak yazar; liste bellekte toplanmaz.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderFilter filter = new OrderFilter(status, email, from, to);
+        StreamingResponseBody body = out -> {
+            int[] rows = {0};
+            orderService.streamOrders(filter, order -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write('\n');
+                    if (++rows[0] % STREAM_FLUSH_ROWS == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            log.info("Sipariş akışı tamamlandı: satır={}", rows[0]);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Arşivlenmiş (partition'ı ayrılmış) siparişleri NDJSON olarak döner; month verilmezse tüm arşiv taranır.
+     */
+    @GetMapping(value = "/archive", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getArchivedOrders(
+            @RequestParam(value = "month", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(value = "orderId", required = false) Long orderId,
+            @RequestParam(value = "email", required = false) String email) {
+        StreamingResponseBody body = out -> archiveReader.read(month, orderId, email, line -> {
+            try {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable("id") Long id) {
         return orderService.getOrderById(id)
@@ -40,8 +134,78 @@ public class OrderController {
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody OrderRequest request) {
-        Order createdOrder = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        try {
+            Order createdOrder = orderService.createOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchOrderResult>> createOrders(@RequestBody List<OrderRequest> requests) {
+        try {
+            return ResponseEntity.ok(orderService.createOrders(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Siparişi oluşturup 202 döner; istemci sonucu statusUrl (long-poll) veya eventsUrl (SSE) ile bekler.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<OrderAccepted> createOrderAsync(@RequestBody OrderRequest request) {
+        try {
+            Order createdOrder = orderService.createOrder(request);
+            String statusUrl = "/api/orders/" + createdOrder.getId() + "/completion";
+            String eventsUrl = "/api/orders/" + createdOrder.getId() + "/events";
+            return ResponseEntity.accepted()
+                    .location(URI.create(statusUrl))
+                    .body(new OrderAccepted(createdOrder.getId(), createdOrder.getStatus(), statusUrl, eventsUrl));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Sipariş sonuçlanınca 200 ile döner; süre dolarsa 202 döner ve istemci yeniden bekler.
+     */
+    @GetMapping("/{id}/completion")
+    public DeferredResult<ResponseEntity<Order>> awaitCompletion(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "timeoutMs", defaultValue = "30000") long timeoutMs) {
+        DeferredResult<ResponseEntity<Order>> result =
+                new DeferredResult<>(Math.min(Math.max(timeoutMs, 1), MAX_COMPLETION_WAIT_MS));
+        Optional<Runnable> cancel = completionRegistry.await(id, order -> result.setResult(ResponseEntity.ok(order)));
+        if (cancel.isEmpty()) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+        result.onTimeout(() -> result.setResult(ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + id + "/completion")).build()));
+        result.onCompletion(cancel.get());
+        return result;
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> orderEvents(@PathVariable("id") Long id) {
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MS);
+        Optional<Runnable> cancel = completionRegistry.await(id, order -> {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(order));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        if (cancel.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        emitter.onCompletion(cancel.get());
+        emitter.onTimeout(cancel.get());
+        emitter.onError(e -> cancel.get().run());
+        return ResponseEntity.ok(emitter);
     }
 
     @PutMapping("/{id}")
@@ -49,6 +213,8 @@ public class OrderController {
         try {
             Order updatedOrder = orderService.updateOrder(id, request);
             return ResponseEntity.ok(updatedOrder);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
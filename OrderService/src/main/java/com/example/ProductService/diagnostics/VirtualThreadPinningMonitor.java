@@ -0,0 +1,66 @@
+package com.example.ProductService.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Virtual thread modunda carrier thread'e eşiğin üzerinde sabitlenen (synchronized içinde bloklanan
+ * veya native frame'den geçen) virtual thread'leri JFR jdk.VirtualThreadPinned event'i ile izler.
+ * Her olay sayılır ve sabitlemeye yol açan ilk uygulama frame'i loglanır.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.virtual-threads.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private final RecordingStream stream;
+    private final Counter pinned;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${order.virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.pinned = Counter.builder("order.virtual-threads.pinned").register(meterRegistry);
+        this.stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning izleniyor: eşik={}ms", thresholdMs);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        log.warn("Virtual thread carrier'a sabitlendi: süre={}ms, frame={}",
+                event.getDuration().toMillis(), applicationFrame(event));
+    }
+
+    private static String applicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "?";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith("com.example."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .orElse("?");
+    }
+
+    @PreDestroy
+    void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ProductService.dto;
+
+import com.example.ProductService.enums.BatchItemStatus;
+
+/**
+ * Toplu istekteki bir siparişin sonucu; index istekteki sırasıdır. PUBLISH_FAILED siparişler
+ * kaydedilmiş ama order-placed event'i gönderilememiştir.
+ */
+public record BatchOrderResult(
+        int index,
+        Long orderId,
+        BatchItemStatus status,
+        String error
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.ProductService.dto;
+
+import com.example.ProductService.enums.OrderStatus;
+
+public record OrderAccepted(
+        Long orderId,
+        OrderStatus status,
+        String statusUrl,
+        String eventsUrl
+) {
+}
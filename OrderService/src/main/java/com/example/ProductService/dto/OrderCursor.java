@@ -0,0 +1,32 @@
+package com.example.ProductService.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Sayfalı listelemede son satırın konumu. Tarih aralığı verilmemişse yalnızca id'dir ("123");
+ * verilmişse sıralama (order_date, id) olduğu için ikisini birlikte taşır ("2026-10-01T10:15:30.123456_123").
+ */
+public record OrderCursor(
+        LocalDateTime orderDate,
+        long id
+) {
+
+    public static OrderCursor parse(String value) {
+        int separator = value.lastIndexOf('_');
+        try {
+            if (separator < 0) {
+                return new OrderCursor(null, Long.parseLong(value));
+            }
+            return new OrderCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Geçersiz cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return orderDate == null ? String.valueOf(id) : orderDate + "_" + id;
+    }
+}
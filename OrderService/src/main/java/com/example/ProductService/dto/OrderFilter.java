@@ -0,0 +1,24 @@
+package com.example.ProductService.dto;
+
+import com.example.ProductService.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sipariş listeleme filtreleri; boş bırakılan alanlar filtrelemez. Tarih aralığı [from, to) şeklindedir.
+ */
+public record OrderFilter(
+        OrderStatus status,
+        String customerEmail,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+
+    /**
+     * Tarih aralığı verilmişse listeler (order_date, id) sırasıyla döner; böylece sorgu
+     * (order_date, id) index'ini sırayla tarar.
+     */
+    public boolean byDate() {
+        return from != null || to != null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ProductService.dto;
+
+public record OrderItemRequest(
+        Long productId,
+        Integer quantity
+) {
+}
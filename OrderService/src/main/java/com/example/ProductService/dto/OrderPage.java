@@ -0,0 +1,12 @@
+package com.example.ProductService.dto;
+
+import java.util.List;
+
+/**
+ * nextCursor bir sonraki sayfa için cursor parametresine verilir; son sayfada null'dır.
+ */
+public record OrderPage(
+        List<OrderSummary> orders,
+        String nextCursor
+) {
+}
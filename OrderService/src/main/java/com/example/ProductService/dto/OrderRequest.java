@@ -1,6 +1,7 @@
 package com.example.ProductService.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 public record OrderRequest(
@@ -8,8 +9,17 @@ public record OrderRequest(
          Integer quantity,
          BigDecimal totalPrice,
          String customerName,
-         String customerEmail
+         String customerEmail,
+         List<OrderItemRequest> items
 ){
 
+    /**
+     * Çok satırlı siparişlerde items, tek ürünlü eski isteklerde productId/quantity kullanılır.
+     */
+    public List<OrderItemRequest> lines() {
+        if (items != null && !items.isEmpty()) {
+            return items;
+        }
+        return List.of(new OrderItemRequest(productId, quantity));
+    }
 }
-
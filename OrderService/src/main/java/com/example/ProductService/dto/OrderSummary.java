@@ -0,0 +1,18 @@
+package com.example.ProductService.dto;
+
+import com.example.ProductService.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderSummary(
+        Long id,
+        Long productId,
+        Integer quantity,
+        BigDecimal totalPrice,
+        String customerName,
+        String customerEmail,
+        OrderStatus status,
+        LocalDateTime orderDate
+) {
+}
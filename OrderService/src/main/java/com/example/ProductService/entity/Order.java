@@ -1,23 +1,39 @@
 package com.example.ProductService.entity;
 
 import com.example.ProductService.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
-
-public class Order {
-
+@DynamicUpdate
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_email_id", columnList = "customer_email, id"),
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id")
+})
+
+public class Order implements Persistable<Long> {
+
+    /**
+     * Kayıttan önce SnowflakeIdGenerator ile atanır; id baştan bilindiği için yeni kayıt ayrımı
+     * isNew üzerinden yapılır.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Transient
+    private boolean isNew = true;
+
     @Column(nullable = false)
     private Long productId;
 
@@ -40,6 +56,28 @@ public class Order {
     @Column(nullable = false)
     private LocalDateTime orderDate;
 
+    /**
+     * Siparişin tüm satırları. Tek ürünlü siparişlerle uyum için productId ilk satırın ürünü,
+     * quantity ise toplam adettir.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "order_items", joinColumns = @JoinColumn(name = "order_id"),
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @OrderColumn(name = "line_no")
+    private List<OrderLine> items = new ArrayList<>();
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
     @PrePersist
     protected void onCreate() {
         orderDate = LocalDateTime.now();
@@ -62,6 +100,7 @@ public class Order {
         this.orderDate = orderDate;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -125,4 +164,12 @@ public class Order {
     public void setOrderDate(LocalDateTime orderDate) {
         this.orderDate = orderDate;
     }
+
+    public List<OrderLine> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderLine> items) {
+        this.items = items;
+    }
 }
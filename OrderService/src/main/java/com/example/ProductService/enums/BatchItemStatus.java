@@ -0,0 +1,7 @@
+package com.example.ProductService.enums;
+
+public enum BatchItemStatus {
+    CREATED,
+    INVALID,
+    PUBLISH_FAILED
+}
@@ -1,9 +1,22 @@
 package com.example.ProductService.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     CANCELLED,
-    FAILED
-}
+    FAILED;
 
+    /**
+     * Bu duruma geçilebilecek önceki durumlar. Saga sonuçlarının hepsi PENDING'den çıkar; sonuçlanmış
+     * bir sipariş geç gelen başka bir sonuçla değiştirilmez.
+     */
+    public Set<OrderStatus> predecessors() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(OrderStatus.class);
+            case CONFIRMED, CANCELLED, FAILED -> EnumSet.of(PENDING);
+        };
+    }
+}
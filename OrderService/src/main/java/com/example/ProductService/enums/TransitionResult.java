@@ -0,0 +1,7 @@
+package com.example.ProductService.enums;
+
+public enum TransitionResult {
+    APPLIED,
+    DUPLICATE,
+    REJECTED
+}
@@ -1,11 +1,13 @@
 package com.example.ProductService.event;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record OrderEvent(
         Long orderId,
         Long productId,
         Integer quantity,
         BigDecimal totalPrice,
-        String customerEmail
+        String customerEmail,
+        List<OrderItem> items
 ) {}
@@ -0,0 +1,6 @@
+package com.example.ProductService.event;
+
+public record OrderItem(
+        Long productId,
+        Integer quantity
+) {}
@@ -1,8 +1,11 @@
 package com.example.ProductService.event;
 
+import java.util.List;
+
 public record StockReleasedEvent(
         Long orderId,
         Long productId,
         Integer quantity,
-        String reason
+        String reason,
+        List<OrderItem> items
 ) {}
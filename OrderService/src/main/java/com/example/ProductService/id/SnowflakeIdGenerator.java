@@ -0,0 +1,73 @@
+package com.example.ProductService.id;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 64 bit, zamana göre sıralı id üretir: 41 bit milisaniye (EPOCH'tan itibaren), 10 bit worker, 12 bit sıra.
+ * Zaman ve sıra tek bir AtomicLong'da (zaman << 12 | sıra) tutulur ve CAS ile ilerletilir; kilit
+ * ve nesne oluşturma yoktur. Aynı milisaniyede sıra artırılır; 4096'yı aşınca taşma zaman bitine
+ * geçer. Saat geri giderse de son verilen değerden devam edilir, böylece id'ler hiçbir durumda
+ * geri gitmez ve saat yetişene kadar ileriden ödünç alınır.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH = 1_704_067_200_000L;
+
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private final long workerBits;
+    private final LongSupplier clock;
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Worker id'nin varsayılanı yoktur: iki replika aynı değeri kullanırsa aynı milisaniyede aynı
+     * id'leri üretir. Her replikaya 0-1023 arasında farklı bir order.id.worker-id verilmelidir;
+     * yerel çalıştırmada dev profili 0 atar.
+     */
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${order.id.worker-id:}") String workerId) {
+        this(parseWorkerId(workerId));
+    }
+
+    SnowflakeIdGenerator(long workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id 0 ile " + MAX_WORKER_ID + " arasında olmalı: " + workerId);
+        }
+        this.workerBits = workerId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    private static long parseWorkerId(String workerId) {
+        if (workerId == null || workerId.isBlank()) {
+            throw new IllegalStateException("order.id.worker-id ayarlanmamış; her replika için 0 ile "
+                    + MAX_WORKER_ID + " arasında farklı bir değer verilmeli (yerelde dev profili kullanılabilir)");
+        }
+        return Long.parseLong(workerId.trim());
+    }
+
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | workerBits | sequence;
+            }
+        }
+    }
+}
@@ -1,38 +1,60 @@
 package com.example.ProductService.listener;
 
-import com.example.ProductService.entity.Order;
+import com.example.ProductService.cache.OrderCache;
+import com.example.ProductService.completion.OrderCompletionRegistry;
 import com.example.ProductService.enums.OrderStatus;
 import com.example.ProductService.event.OrderCancelledEvent;
 import com.example.ProductService.event.PaymentConfirmedEvent;
 import com.example.ProductService.event.StockReleasedEvent;
-import com.example.ProductService.repository.OrderRepository;
+import com.example.ProductService.enums.TransitionResult;
+import com.example.ProductService.service.OrderStateMachine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Slf4j
 public class OrderEventListener {
 
-    private final OrderRepository orderRepository;
+    private final OrderStateMachine stateMachine;
+    private final OrderCache orderCache;
+    private final OrderCompletionRegistry completionRegistry;
+
+    public OrderEventListener(OrderStateMachine stateMachine,
+                              OrderCache orderCache, OrderCompletionRegistry completionRegistry) {
+        this.stateMachine = stateMachine;
+        this.orderCache = orderCache;
+        this.completionRegistry = completionRegistry;
+    }
 
-    public OrderEventListener(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    /**
+     * Entity yüklenmediği için önbellek girdisi düşürülür; bekleyen istemci varsa güncel kayıt okunur.
+     */
+    private TransitionResult transition(Long orderId, OrderStatus target) {
+        TransitionResult result = stateMachine.transition(orderId, target);
+        if (result == TransitionResult.APPLIED) {
+            orderCache.evict(orderId);
+            completionRegistry.changed(orderId);
+        }
+        return result;
     }
 
-    @KafkaListener(topics = "payment-confirmed", groupId = "order-group", containerFactory = "paymentConfirmedKafkaListenerContainerFactory")
+    @KafkaListener(topics = "payment-confirmed", groupId = "order-group", containerFactory = "paymentConfirmedKafkaListenerContainerFactory",
+            autoStartup = "#{!${order.listeners.batch.enabled:false} && !${order.listeners.shared.enabled:false}}")
     public void handlePaymentConfirmed(PaymentConfirmedEvent event) {
         log.info("Payment confirmed event alındı: orderId={}, paymentId={}, status={}",
                 event.orderId(), event.paymentId(), event.status());
 
         try {
-            Order order = orderRepository.findById(event.orderId())
-                    .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + event.orderId()));
-
             if ("SUCCESS".equalsIgnoreCase(event.status())) {
-                order.setStatus(OrderStatus.CONFIRMED);
-                orderRepository.save(order);
-                log.info("Sipariş onaylandı: orderId={}, status=CONFIRMED", order.getId());
+                TransitionResult result = transition(event.orderId(), OrderStatus.CONFIRMED);
+                log.info("Sipariş onaylandı: orderId={}, status=CONFIRMED, sonuç={}", event.orderId(), result);
             } else {
                 log.warn("Ödeme başarısız, sipariş iptal edilecek: orderId={}, paymentStatus={}",
                         event.orderId(), event.status());
@@ -44,19 +66,16 @@ public class OrderEventListener {
         }
     }
 
-    @KafkaListener(topics = "order-cancelled", groupId = "order-group", containerFactory = "orderCancelledKafkaListenerContainerFactory")
+    @KafkaListener(topics = "order-cancelled", groupId = "order-group", containerFactory = "orderCancelledKafkaListenerContainerFactory",
+            autoStartup = "#{!${order.listeners.batch.enabled:false} && !${order.listeners.shared.enabled:false}}")
     public void handleOrderCancelled(OrderCancelledEvent event) {
         log.info("Order cancelled event alındı: orderId={}, reason={}",
                 event.orderId(), event.reason());
 
         try {
-            Order order = orderRepository.findById(event.orderId())
-                    .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + event.orderId()));
-
-            order.setStatus(OrderStatus.CANCELLED);
-            orderRepository.save(order);
-            log.info("Sipariş iptal edildi: orderId={}, reason={}, status=CANCELLED",
-                    order.getId(), event.reason());
+            TransitionResult result = transition(event.orderId(), OrderStatus.CANCELLED);
+            log.info("Sipariş iptal edildi: orderId={}, reason={}, status=CANCELLED, sonuç={}",
+                    event.orderId(), event.reason(), result);
         } catch (Exception e) {
             log.error("Order cancelled event işlenirken hata oluştu: orderId={}",
                     event.orderId(), e);
@@ -64,23 +83,75 @@ public class OrderEventListener {
         }
     }
 
-    @KafkaListener(topics = "stock-released", groupId = "order-group", containerFactory = "stockReleasedKafkaListenerContainerFactory")
+    @KafkaListener(topics = "stock-released", groupId = "order-group", containerFactory = "stockReleasedKafkaListenerContainerFactory",
+            autoStartup = "#{!${order.listeners.batch.enabled:false} && !${order.listeners.shared.enabled:false}}")
     public void handleStockReleased(StockReleasedEvent event) {
         log.info("Stock released event alındı: orderId={}, productId={}, quantity={}, reason={}",
                 event.orderId(), event.productId(), event.quantity(), event.reason());
 
         try {
-            Order order = orderRepository.findById(event.orderId())
-                    .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + event.orderId()));
-
-            order.setStatus(OrderStatus.CANCELLED);
-            orderRepository.save(order);
-            log.info("Sipariş iptal edildi (stock released): orderId={}, reason={}, status=CANCELLED",
-                    order.getId(), event.reason());
+            TransitionResult result = transition(event.orderId(), OrderStatus.CANCELLED);
+            log.info("Sipariş iptal edildi (stock released): orderId={}, reason={}, status=CANCELLED, sonuç={}",
+                    event.orderId(), event.reason(), result);
         } catch (Exception e) {
             log.error("Stock released event işlenirken hata oluştu: orderId={}",
                     event.orderId(), e);
             throw e;
         }
     }
+
+    @KafkaListener(id = "paymentConfirmedBatch", topics = "payment-confirmed", groupId = "order-group",
+            containerFactory = "paymentConfirmedBatchKafkaListenerContainerFactory",
+            autoStartup = "${order.listeners.batch.enabled:false}")
+    public void handlePaymentConfirmedBatch(List<PaymentConfirmedEvent> events) {
+        Map<Long, OrderStatus> transitions = new LinkedHashMap<>();
+        for (PaymentConfirmedEvent event : events) {
+            if ("SUCCESS".equalsIgnoreCase(event.status())) {
+                transitions.remove(event.orderId());
+                transitions.put(event.orderId(), OrderStatus.CONFIRMED);
+            }
+        }
+        applyBatch("payment-confirmed", events.size(), transitions);
+    }
+
+    @KafkaListener(id = "orderCancelledBatch", topics = "order-cancelled", groupId = "order-group",
+            containerFactory = "orderCancelledBatchKafkaListenerContainerFactory",
+            autoStartup = "${order.listeners.batch.enabled:false}")
+    public void handleOrderCancelledBatch(List<OrderCancelledEvent> events) {
+        Map<Long, OrderStatus> transitions = new LinkedHashMap<>();
+        events.forEach(event -> transitions.put(event.orderId(), OrderStatus.CANCELLED));
+        applyBatch("order-cancelled", events.size(), transitions);
+    }
+
+    @KafkaListener(id = "stockReleasedBatch", topics = "stock-released", groupId = "order-group",
+            containerFactory = "stockReleasedBatchKafkaListenerContainerFactory",
+            autoStartup = "${order.listeners.batch.enabled:false}")
+    public void handleStockReleasedBatch(List<StockReleasedEvent> events) {
+        Map<Long, OrderStatus> transitions = new LinkedHashMap<>();
+        events.forEach(event -> transitions.put(event.orderId(), OrderStatus.CANCELLED));
+        applyBatch("stock-released", events.size(), transitions);
+    }
+
+    /**
+     * Batch içindeki her siparişin yalnızca son geçişi uygulanır; geçişler hedef duruma göre
+     * gruplanıp durum başına tek koşullu UPDATE ile yazılır. Önbellek girdileri düşürülür ve bekleyen
+     * istemciler güncel kayıtla tamamlanır.
+     */
+    private void applyBatch(String topic, int received, Map<Long, OrderStatus> transitions) {
+        Map<OrderStatus, List<Long>> idsByStatus = new EnumMap<>(OrderStatus.class);
+        transitions.forEach((orderId, status) ->
+                idsByStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(orderId));
+
+        List<Long> updated = stateMachine.transitionAll(idsByStatus);
+        for (Long orderId : updated) {
+            orderCache.evict(orderId);
+            completionRegistry.changed(orderId);
+        }
+
+        log.info("{} batch işlendi: event={}, sipariş={}, güncellenen={}",
+                topic, received, transitions.size(), updated.size());
+        if (updated.size() < transitions.size()) {
+            log.warn("{} batch'inde uygulanmayan geçişler atlandı: {}", topic, transitions.size() - updated.size());
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.ProductService.listener;
+
+import com.example.ProductService.event.OrderCancelledEvent;
+import com.example.ProductService.event.PaymentConfirmedEvent;
+import com.example.ProductService.event.StockReleasedEvent;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paylaşımlı modda saga topic'lerinin hepsini tek container'dan alır ve event tipine göre
+ * OrderEventListener'daki işleyicilere yönlendirir. Tipi topic'e göre deserializer seçer.
+ */
+@Component
+@KafkaListener(id = "orderSaga", topics = {"payment-confirmed", "order-cancelled", "stock-released"},
+        groupId = "order-group", containerFactory = "sagaKafkaListenerContainerFactory",
+        autoStartup = "${order.listeners.shared.enabled:false}")
+public class SagaEventDispatcher {
+
+    private final OrderEventListener orderEventListener;
+
+    public SagaEventDispatcher(OrderEventListener orderEventListener) {
+        this.orderEventListener = orderEventListener;
+    }
+
+    @KafkaHandler
+    public void onPaymentConfirmed(PaymentConfirmedEvent event) {
+        orderEventListener.handlePaymentConfirmed(event);
+    }
+
+    @KafkaHandler
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        orderEventListener.handleOrderCancelled(event);
+    }
+
+    @KafkaHandler
+    public void onStockReleased(StockReleasedEvent event) {
+        orderEventListener.handleStockReleased(event);
+    }
+}
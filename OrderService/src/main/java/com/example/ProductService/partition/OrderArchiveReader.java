@@ -0,0 +1,75 @@
+package com.example.ProductService.partition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OrderPartitionManager'ın yazdığı arşiv dosyalarını okur. Her satır bir siparişin JSON'udur
+ * (kolon adlarıyla, items dahil); dosyalar sıralı taranır ve filtreye uyan satırlar olduğu gibi iletilir.
+ */
+@Component
+public class OrderArchiveReader {
+
+    private static final String SUFFIX = ".ndjson.gz";
+
+    private final ObjectMapper objectMapper;
+    private final Path archiveDir;
+
+    public OrderArchiveReader(ObjectMapper objectMapper,
+                              @Value("${order.archive.dir:archive/orders}") String archiveDir) {
+        this.objectMapper = objectMapper;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    public void read(YearMonth month, Long orderId, String customerEmail, Consumer<String> sink) throws IOException {
+        for (Path file : files(month)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (matches(line, orderId, customerEmail)) {
+                        sink.accept(line);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Path> files(YearMonth month) throws IOException {
+        if (month != null) {
+            Path file = archiveDir.resolve(OrderPartitionManager.partitionName(month) + SUFFIX);
+            return Files.exists(file) ? List.of(file) : List.of();
+        }
+        if (!Files.isDirectory(archiveDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private boolean matches(String line, Long orderId, String customerEmail) throws IOException {
+        if (orderId == null && customerEmail == null) {
+            return true;
+        }
+        JsonNode node = objectMapper.readTree(line);
+        if (orderId != null && node.path("id").asLong() != orderId) {
+            return false;
+        }
+        return customerEmail == null || customerEmail.equals(node.path("customer_email").asText());
+    }
+}
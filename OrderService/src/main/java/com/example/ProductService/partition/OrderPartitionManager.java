@@ -0,0 +1,278 @@
+package com.example.ProductService.partition;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * orders tablosunu order_date üzerinde aylık range partition'larla yönetir. Açılışta tablo henüz
+ * partition'lı değilse tek transaction'da dönüştürülür: eski tablo yeniden adlandırılır, aynı kolonlarla
+ * partition'lı tablo açılır, veriler kopyalanır ve id sequence'ı devam ettirilir. Postgres partition'lı
+ * tabloda tekil anahtar partition kolonunu içermek zorunda olduğundan birincil anahtar (id, order_date)
+ * olur ve order_items'tan orders'a foreign key kaldırılır.
+ *
+ * Bakım işi ileriye dönük partition'ları açar; archive-after-months'tan eski ve PENDING siparişi
+ * kalmamış partition'ları gzip'li NDJSON dosyasına yazar, ardından ayırıp siler.
+ *
+ * Dönüştürme ve bakım, replikalar arasında bir advisory lock ile tek instance'ta çalışır. Arşiv
+ * dizini tüm replikaların okuduğu paylaşımlı bir depolama (ör. NFS ya da ortak volume) olmalıdır;
+ * aksi halde arşiv sorguları replikaya göre farklı sonuç döner.
+ */
+@Component
+@Slf4j
+public class OrderPartitionManager {
+
+    private static final long LOCK_KEY = 0x6F72646572730001L;
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'orders_y'yyyy'm'MM");
+    private static final String EXPORT_SQL = """
+            select row_to_json(t)::text from (
+                select o.*,
+                       (select json_agg(json_build_object('product_id', i.product_id, 'quantity', i.quantity) order by i.line_no)
+                        from order_items i where i.order_id = o.id) as items
+                from %s o order by o.id
+            ) t
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final Path archiveDir;
+
+    public OrderPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${order.partitioning.enabled:false}") boolean enabled,
+                                 @Value("${order.partitioning.months-ahead:3}") int monthsAhead,
+                                 @Value("${order.archive.after-months:6}") int archiveAfterMonths,
+                                 @Value("${order.archive.dir:archive/orders}") String archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_NAME.format(month);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        // Açılışta beklenir: dönüştürmeyi başka bir replika yapıyorsa bitmesi ve görünmesi gerekir.
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select pg_advisory_xact_lock(?)", LOCK_KEY);
+            if (!isPartitioned()) {
+                migrate();
+            }
+            reattachDetached();
+            ensurePartitions(YearMonth.now(), YearMonth.now().plusMonths(monthsAhead));
+        });
+    }
+
+    @Scheduled(cron = "${order.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        Boolean acquired = transactionTemplate.execute(status -> {
+            if (!tryLock()) {
+                return false;
+            }
+            reattachDetached();
+            ensurePartitions(YearMonth.now(), YearMonth.now().plusMonths(monthsAhead));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.info("Partition bakımı başka bir replikada çalışıyor, atlandı");
+            return;
+        }
+        archiveOldPartitions();
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+    }
+
+    /**
+     * Önceki sürümler partition'ı dışa aktarmadan önce transaction dışında ayırıyordu; süreç o arada
+     * ölürse tablo orders'tan kopuk kalıyordu. Böyle tablolar aynı sınırlarla geri bağlanır ve
+     * normal arşivleme akışına girer.
+     */
+    private void reattachDetached() {
+        List<String> detached = jdbcTemplate.queryForList(
+                "select c.relname from pg_class c where c.relkind = 'r' and pg_table_is_visible(c.oid) " +
+                "and c.relname ~ '^orders_y[0-9]{4}m[0-9]{2}$' " +
+                "and not exists (select 1 from pg_inherits i where i.inhrelid = c.oid) order by c.relname",
+                String.class);
+        for (String table : detached) {
+            YearMonth month = YearMonth.parse(table, PARTITION_NAME);
+            jdbcTemplate.execute("alter table orders attach partition " + table + " " + bounds(month));
+            log.warn("Ayrılmış kalmış partition geri bağlandı: partition={}", table);
+        }
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('orders'))",
+                Boolean.class));
+    }
+
+    private void migrate() {
+        Timestamp oldest = jdbcTemplate.queryForObject("select min(order_date) from orders", Timestamp.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : YearMonth.now();
+
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "select conname from pg_constraint where contype = 'f' " +
+                "and conrelid = to_regclass('order_items') and confrelid = to_regclass('orders')",
+                String.class);
+        foreignKeys.forEach(name -> jdbcTemplate.execute("alter table order_items drop constraint \"" + name + "\""));
+
+        jdbcTemplate.execute("alter table orders rename to orders_legacy");
+        jdbcTemplate.execute("create sequence if not exists orders_pk_seq");
+        jdbcTemplate.execute("create table orders (like orders_legacy including defaults) partition by range (order_date)");
+        jdbcTemplate.execute("alter table orders alter column id set default nextval('orders_pk_seq')");
+        jdbcTemplate.execute("alter sequence orders_pk_seq owned by orders.id");
+        jdbcTemplate.execute("alter table orders add primary key (id, order_date)");
+        ensurePartitions(first, YearMonth.now().plusMonths(monthsAhead));
+
+        int copied = jdbcTemplate.update("insert into orders select * from orders_legacy");
+        jdbcTemplate.queryForObject(
+                "select setval('orders_pk_seq', (select coalesce(max(id), 0) + 1 from orders), false)", Long.class);
+        jdbcTemplate.execute("drop table orders_legacy");
+
+        jdbcTemplate.execute("create index if not exists idx_orders_customer_email_id on orders (customer_email, id)");
+        jdbcTemplate.execute("create index if not exists idx_orders_status_id on orders (status, id)");
+        jdbcTemplate.execute("create index if not exists idx_orders_order_date_id on orders (order_date, id)");
+        log.info("orders tablosu aylık partition'lara dönüştürüldü: kopyalanan={}, ilk ay={}", copied, first);
+    }
+
+    private void ensurePartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("create table if not exists " + partitionName(month) + " partition of orders " + bounds(month));
+        }
+    }
+
+    private static String bounds(YearMonth month) {
+        return "for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private void archiveOldPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = to_regclass('orders') order by c.relname",
+                String.class);
+        YearMonth cutoff = YearMonth.now().minusMonths(archiveAfterMonths);
+        for (String partition : partitions) {
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition, PARTITION_NAME);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (month.isBefore(cutoff)) {
+                archive(partition);
+            }
+        }
+    }
+
+    /**
+     * Tek transaction'da çalışır: bağlı partition yazmalara kilitlenir ve dosyaya aktarılır, dosya
+     * yerine taşındıktan sonra partition ayrılır, siparişlerin order_items satırları ve tablo silinir.
+     * Herhangi bir adımda hata ya da çökme olursa transaction geri alınır ve partition bağlı kalır;
+     * yarım kalan dosya bir sonraki denemede üzerine yazılır.
+     */
+    private void archive(String partition) {
+        Path file = archiveDir.resolve(partition + ".ndjson.gz");
+        Long rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                if (!tryLock()) {
+                    log.info("Partition başka bir replikada arşivleniyor, atlandı: partition={}", partition);
+                    return null;
+                }
+                if (jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, partition) != Boolean.TRUE) {
+                    return null;
+                }
+                jdbcTemplate.execute("lock table " + partition + " in share mode");
+                Integer pending = jdbcTemplate.queryForObject(
+                        "select count(*) from " + partition + " where status = 'PENDING'", Integer.class);
+                if (pending != null && pending > 0) {
+                    log.warn("Partition arşivlenmedi, bitmemiş sipariş var: partition={}, pending={}", partition, pending);
+                    return null;
+                }
+                long exported = exportTo(partition, file);
+                jdbcTemplate.execute("alter table orders detach partition " + partition);
+                jdbcTemplate.update("delete from order_items where order_id in (select id from " + partition + ")");
+                jdbcTemplate.execute("drop table " + partition);
+                return exported;
+            });
+        } catch (RuntimeException e) {
+            log.error("Partition arşivlenemedi, bağlı bırakıldı: partition={}", partition, e);
+            return;
+        }
+        if (rows != null) {
+            log.info("Partition arşivlendi: partition={}, satır={}, dosya={}", partition, rows, file);
+        }
+    }
+
+    private long exportTo(String partition, Path file) {
+        try {
+            Files.createDirectories(archiveDir);
+            Path tmp = archiveDir.resolve(partition + ".ndjson.gz.tmp");
+            long rows = export(partition, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long export(String partition, Path target) throws IOException {
+        long[] rows = {0};
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL.formatted(partition),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    out.write(rs.getString(1).getBytes(StandardCharsets.UTF_8));
+                    out.write('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+}
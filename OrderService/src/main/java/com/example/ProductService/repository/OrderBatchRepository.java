@@ -0,0 +1,109 @@
+package com.example.ProductService.repository;
+
+import com.example.ProductService.entity.Order;
+import com.example.ProductService.entity.OrderLine;
+import com.example.ProductService.enums.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Toplu siparişler JPA yerine doğrudan JDBC ile yazılır; id'leri önceden atanmış siparişler ve
+ * satırları JDBC batch'leri olarak gönderilir, sürücünün reWriteBatchedInserts ayarı bunları çok
+ * satırlı INSERT'lere çevirir.
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER =
+            "insert into orders (id, product_id, quantity, total_price, customer_name, customer_email, status, order_date) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LINE =
+            "insert into order_items (order_id, line_no, product_id, quantity) values (?, ?, ?, ?)";
+    private static final String TRANSITION_STATUS =
+            "update orders set status = ? where id = any(?) and status = any(?) returning id";
+    private static final String FIND_STATUSES =
+            "select id, status from orders where id = any(?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Id'leri atanmış siparişleri satırlarıyla birlikte tek transaction'da yazar.
+     */
+    @Transactional
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Object[]> lines = new ArrayList<>();
+        for (Order order : orders) {
+            List<OrderLine> items = order.getItems();
+            for (int lineNo = 0; lineNo < items.size(); lineNo++) {
+                lines.add(new Object[]{order.getId(), lineNo, items.get(lineNo).getProductId(), items.get(lineNo).getQuantity()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER, orders, BATCH_SIZE, (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, order.getProductId());
+            ps.setInt(3, order.getQuantity());
+            ps.setBigDecimal(4, order.getTotalPrice());
+            ps.setString(5, order.getCustomerName());
+            ps.setString(6, order.getCustomerEmail());
+            ps.setString(7, order.getStatus().name());
+            ps.setTimestamp(8, Timestamp.valueOf(order.getOrderDate()));
+        });
+        jdbcTemplate.batchUpdate(INSERT_LINE, lines, BATCH_SIZE, (ps, line) -> {
+            ps.setLong(1, (Long) line[0]);
+            ps.setInt(2, (Integer) line[1]);
+            ps.setLong(3, (Long) line[2]);
+            ps.setInt(4, (Integer) line[3]);
+        });
+    }
+
+    /**
+     * Hedef durum başına tek bir koşullu UPDATE çalıştırır; yalnızca izin verilen önceki durumlardaki
+     * siparişler güncellenir. Güncellenen sipariş id'lerini döner.
+     */
+    @Transactional
+    public List<Long> transitionAll(Map<OrderStatus, List<Long>> idsByTarget) {
+        List<Long> updated = new ArrayList<>();
+        for (Map.Entry<OrderStatus, List<Long>> group : idsByTarget.entrySet()) {
+            updated.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(TRANSITION_STATUS);
+                Array ids = con.createArrayOf("bigint", group.getValue().toArray());
+                Array predecessors = con.createArrayOf("varchar",
+                        group.getKey().predecessors().stream().map(Enum::name).toArray());
+                ps.setString(1, group.getKey().name());
+                ps.setArray(2, ids);
+                ps.setArray(3, predecessors);
+                return ps;
+            }, (rs, rowNum) -> rs.getLong(1)));
+        }
+        return updated;
+    }
+
+    public Map<Long, OrderStatus> findStatuses(List<Long> orderIds) {
+        Map<Long, OrderStatus> statuses = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_STATUSES);
+            ps.setArray(1, con.createArrayOf("bigint", orderIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> statuses.put(rs.getLong(1), OrderStatus.valueOf(rs.getString(2))));
+        return statuses;
+    }
+}
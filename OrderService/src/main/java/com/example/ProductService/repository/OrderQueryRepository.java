@@ -0,0 +1,122 @@
+package com.example.ProductService.repository;
+
+import com.example.ProductService.dto.OrderCursor;
+import com.example.ProductService.dto.OrderFilter;
+import com.example.ProductService.dto.OrderSummary;
+import com.example.ProductService.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sipariş listelerini azalan keyset sırasıyla okur: tarih aralığı yoksa id'ye, varsa (order_date, id)
+ * çiftine göre; her iki sıra da ilgili index'ten doğrudan okunur. Sayfalı sorgular "id < ?" ya da
+ * "(order_date, id) < (?, ?)" ile devam eder, OFFSET kullanılmaz; akış sorgusu ise sabit fetch size'lı bir JDBC cursor'ı üzerinden
+ * satırları geldikçe iletir. Postgres cursor'ı yalnızca transaction içinde açtığı için akış
+ * salt okunur bir transaction'da çalışır.
+ */
+@Repository
+public class OrderQueryRepository {
+
+    private static final String COLUMNS =
+            "select id, product_id, quantity, total_price, customer_name, customer_email, status, order_date from orders";
+
+    private static final RowMapper<OrderSummary> ROW_MAPPER = (rs, rowNum) -> toSummary(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public OrderQueryRepository(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${order.query.stream.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public List<OrderSummary> findPage(OrderFilter filter, OrderCursor cursor, int size) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = where(filter, cursor, args);
+        sql.append(orderBy(filter)).append(" limit ?");
+        args.add(size);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    public void stream(OrderFilter filter, Consumer<OrderSummary> sink) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = where(filter, null, args);
+        sql.append(orderBy(filter));
+
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(toSummary(rs))));
+    }
+
+    private static String orderBy(OrderFilter filter) {
+        return filter.byDate() ? " order by order_date desc, id desc" : " order by id desc";
+    }
+
+    private static StringBuilder where(OrderFilter filter, OrderCursor cursor, List<Object> args) {
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" where 1 = 1");
+        if (filter.status() != null) {
+            sql.append(" and status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.customerEmail() != null) {
+            sql.append(" and customer_email = ?");
+            args.add(filter.customerEmail());
+        }
+        if (filter.from() != null) {
+            sql.append(" and order_date >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" and order_date < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (cursor != null && filter.byDate()) {
+            if (cursor.orderDate() == null) {
+                throw new IllegalArgumentException("Tarih aralıklı sorgularda cursor order_date içermeli: " + cursor);
+            }
+            sql.append(" and (order_date, id) < (?, ?)");
+            args.add(Timestamp.valueOf(cursor.orderDate()));
+            args.add(cursor.id());
+        } else if (cursor != null) {
+            sql.append(" and id < ?");
+            args.add(cursor.id());
+        }
+        return sql;
+    }
+
+    private static OrderSummary toSummary(ResultSet rs) throws SQLException {
+        return new OrderSummary(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("total_price"),
+                rs.getString("customer_name"),
+                rs.getString("customer_email"),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getTimestamp("order_date").toLocalDateTime());
+    }
+}
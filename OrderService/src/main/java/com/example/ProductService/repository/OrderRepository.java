@@ -1,13 +1,30 @@
 package com.example.ProductService.repository;
 
 import com.example.ProductService.entity.Order;
+import com.example.ProductService.enums.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByCustomerEmail(String customerEmail);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :target where o.id = :id and o.status in :predecessors")
+    int transition(@Param("id") Long id,
+                   @Param("target") OrderStatus target,
+                   @Param("predecessors") Collection<OrderStatus> predecessors);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
 }
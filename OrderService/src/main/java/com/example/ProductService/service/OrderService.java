@@ -1,33 +1,73 @@
 package com.example.ProductService.service;
 
-import com.example.ProductService.client.ProductClient;
+import com.example.ProductService.cache.OrderCache;
+import com.example.ProductService.client.CachedProductClient;
+import com.example.ProductService.dto.BatchOrderResult;
+import com.example.ProductService.dto.OrderCursor;
+import com.example.ProductService.dto.OrderFilter;
+import com.example.ProductService.dto.OrderItemRequest;
+import com.example.ProductService.dto.OrderPage;
 import com.example.ProductService.dto.OrderRequest;
+import com.example.ProductService.dto.OrderSummary;
 import com.example.ProductService.entity.Order;
+import com.example.ProductService.entity.OrderLine;
+import com.example.ProductService.enums.BatchItemStatus;
 import com.example.ProductService.enums.OrderStatus;
 import com.example.ProductService.event.OrderEvent;
+import com.example.ProductService.event.OrderItem;
+import com.example.ProductService.id.SnowflakeIdGenerator;
+import com.example.ProductService.repository.OrderBatchRepository;
+import com.example.ProductService.repository.OrderQueryRepository;
 import com.example.ProductService.repository.OrderRepository;
+import com.example.ProductService.spool.OrderEventSpool;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
-    private final ProductClient productClient;
-    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final CachedProductClient productClient;
+    private final OrderCache orderCache;
+    private final SnowflakeIdGenerator idGenerator;
+    private final OrderEventSpool eventSpool;
+    private final int maxBatchSize;
+    private final long batchPublishTimeoutMs;
 
     public OrderService(OrderRepository orderRepository,
-            ProductClient productClient,
-            KafkaTemplate<String, OrderEvent> kafkaTemplate) {
+            OrderQueryRepository orderQueryRepository,
+            OrderBatchRepository orderBatchRepository,
+            CachedProductClient productClient,
+            OrderCache orderCache,
+            SnowflakeIdGenerator idGenerator,
+            OrderEventSpool eventSpool,
+            @Value("${order.batch.max-size:10000}") int maxBatchSize,
+            @Value("${order.batch.publish-timeout-ms:30000}") long batchPublishTimeoutMs) {
         this.orderRepository = orderRepository;
+        this.orderQueryRepository = orderQueryRepository;
+        this.orderBatchRepository = orderBatchRepository;
         this.productClient = productClient;
-        this.kafkaTemplate = kafkaTemplate;
+        this.orderCache = orderCache;
+        this.idGenerator = idGenerator;
+        this.eventSpool = eventSpool;
+        this.maxBatchSize = maxBatchSize;
+        this.batchPublishTimeoutMs = batchPublishTimeoutMs;
     }
 
     public List<Order> getAllOrders() {
@@ -35,18 +75,36 @@ public class OrderService {
     }
 
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderCache.get(id, orderRepository::findById);
     }
 
     public List<Order> getOrdersByCustomerEmail(String email) {
         return orderRepository.findByCustomerEmail(email);
     }
 
+    public OrderPage getOrderPage(OrderFilter filter, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Sayfa boyutu 1 ile " + MAX_PAGE_SIZE + " arasında olmalı: " + size);
+        }
+        List<OrderSummary> orders = orderQueryRepository.findPage(filter,
+                cursor == null ? null : OrderCursor.parse(cursor), size);
+        if (orders.size() < size) {
+            return new OrderPage(orders, null);
+        }
+        OrderSummary last = orders.get(orders.size() - 1);
+        OrderCursor next = new OrderCursor(filter.byDate() ? last.orderDate() : null, last.id());
+        return new OrderPage(orders, next.toString());
+    }
+
+    public void streamOrders(OrderFilter filter, Consumer<OrderSummary> sink) {
+        orderQueryRepository.stream(filter, sink);
+    }
+
 
     public Order createOrder(OrderRequest request) {
         Order newOrder = new Order();
-        newOrder.setProductId(request.productId());
-        newOrder.setQuantity(request.quantity());
+        newOrder.setId(idGenerator.nextId());
+        applyLines(newOrder, request.lines());
         newOrder.setTotalPrice(request.totalPrice());
         newOrder.setCustomerName(request.customerName());
         newOrder.setCustomerEmail(request.customerEmail());
@@ -54,45 +112,151 @@ public class OrderService {
 
         Order saved = orderRepository.save(newOrder);
 
-        OrderEvent event = new OrderEvent(saved.getId(), saved.getProductId(), saved.getQuantity(),
-                saved.getTotalPrice(), saved.getCustomerEmail());
-        kafkaTemplate.send("order-placed", event);
+        OrderEvent event = toOrderEvent(saved);
+        eventSpool.publish("order-placed", event);
 
-        log.info("Order-placed event gönderildi: orderId={}, productId={}, quantity={}",
-                saved.getId(), saved.getProductId(), saved.getQuantity());
+        log.info("Order-placed event gönderildi: orderId={}, satır sayısı={}, quantity={}",
+                saved.getId(), saved.getItems().size(), saved.getQuantity());
         return saved;
     }
 
+    /**
+     * Geçerli siparişleri tek transaction'da JDBC batch'leriyle yazar; commit sonrası order-placed
+     * event'lerinin hepsi beklemeden gönderilir ve sonuçlar en sonda toplanır. Geçersiz satırlar
+     * diğerlerini engellemez, INVALID olarak raporlanır.
+     */
+    public List<BatchOrderResult> createOrders(List<OrderRequest> requests) {
+        if (requests.isEmpty() || requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Toplu sipariş sayısı 1 ile " + maxBatchSize + " arasında olmalı: " + requests.size());
+        }
+
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<Order> orders = new ArrayList<>(requests.size());
+        List<Integer> indexes = new ArrayList<>(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            try {
+                if (request.totalPrice() == null || request.customerName() == null || request.customerEmail() == null) {
+                    throw new IllegalArgumentException("totalPrice, customerName ve customerEmail zorunlu");
+                }
+                Order order = new Order();
+                order.setId(idGenerator.nextId());
+                applyLines(order, request.lines());
+                order.setTotalPrice(request.totalPrice());
+                order.setCustomerName(request.customerName());
+                order.setCustomerEmail(request.customerEmail());
+                order.setStatus(OrderStatus.PENDING);
+                order.setOrderDate(now);
+                orders.add(order);
+                indexes.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = new BatchOrderResult(i, null, BatchItemStatus.INVALID, e.getMessage());
+            }
+        }
+
+        orderBatchRepository.insertAll(orders);
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                sends.add(eventSpool.publish("order-placed", toOrderEvent(order)));
+            } catch (RuntimeException e) {
+                sends.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchPublishTimeoutMs);
+        int failed = 0;
+        for (int k = 0; k < orders.size(); k++) {
+            int index = indexes.get(k);
+            Long orderId = orders.get(k).getId();
+            try {
+                sends.get(k).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                results[index] = new BatchOrderResult(index, orderId, BatchItemStatus.CREATED, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results[index] = new BatchOrderResult(index, orderId, BatchItemStatus.PUBLISH_FAILED, "interrupted");
+                failed++;
+            } catch (Exception e) {
+                results[index] = new BatchOrderResult(index, orderId, BatchItemStatus.PUBLISH_FAILED, e.toString());
+                failed++;
+            }
+        }
+
+        log.info("Toplu sipariş işlendi: istek={}, kaydedilen={}, geçersiz={}, event gönderilemeyen={}",
+                requests.size(), orders.size(), requests.size() - orders.size(), failed);
+        return Arrays.asList(results);
+    }
+
     public Order updateOrder(Long id, OrderRequest request) {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + id));
 
-        existingOrder.setProductId(request.productId());
-        existingOrder.setQuantity(request.quantity());
+        applyLines(existingOrder, request.lines());
         existingOrder.setTotalPrice(request.totalPrice());
         existingOrder.setCustomerName(request.customerName());
         existingOrder.setCustomerEmail(request.customerEmail());
 
-        return orderRepository.save(existingOrder);
+        Order saved = orderRepository.save(existingOrder);
+        orderCache.update(saved);
+        return saved;
+    }
+
+    private void applyLines(Order order, List<OrderItemRequest> lines) {
+        if (lines.isEmpty() || lines.stream().anyMatch(line -> line.productId() == null || line.quantity() == null)) {
+            throw new IllegalArgumentException("Sipariş en az bir geçerli satır içermeli");
+        }
+        order.getItems().clear();
+        for (OrderItemRequest line : lines) {
+            order.getItems().add(new OrderLine(line.productId(), line.quantity()));
+        }
+        order.setProductId(lines.get(0).productId());
+        order.setQuantity(lines.stream().mapToInt(OrderItemRequest::quantity).sum());
+    }
+
+    private OrderEvent toOrderEvent(Order order) {
+        List<OrderItem> items = order.getItems().stream()
+                .map(line -> new OrderItem(line.getProductId(), line.getQuantity()))
+                .toList();
+        boolean singleLine = items.size() == 1;
+        return new OrderEvent(order.getId(),
+                singleLine ? order.getProductId() : null,
+                singleLine ? order.getQuantity() : null,
+                order.getTotalPrice(), order.getCustomerEmail(), items);
     }
 
     public Order updateOrderStatus(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + id));
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderCache.update(saved);
+        return saved;
     }
 
     @CircuitBreaker(name = "productService", fallbackMethod = "urunFallback")
     public String siparisVer(Long productId) {
-        productClient.getProductById(productId);
+        productClient.getProduct(productId);
         return "Sipariş oluşturuldu, ürün onaylandı.";
     }
 
+    /**
+     * product-service'e ulaşılamıyorsa veya devre açıksa önbellekteki son bilinen ürünle devam edilir.
+     */
+    private String urunFallback(Long productId, Throwable t) throws Throwable {
+        if (productClient.stale(productId).isPresent()) {
+            log.warn("product-service kullanılamıyor, önbellekteki ürünle devam ediliyor: productId={}, hata={}",
+                    productId, t.toString());
+            return "Sipariş oluşturuldu, ürün önbellekten onaylandı.";
+        }
+        throw t;
+    }
+
 
     public void deleteOrder(Long id) {
         if (!orderRepository.existsById(id)) {
             throw new RuntimeException("Sipariş bulunamadı: " + id);
         }
         orderRepository.deleteById(id);
+        orderCache.evict(id);
     }
 }
@@ -0,0 +1,91 @@
+package com.example.ProductService.service;
+
+import com.example.ProductService.enums.OrderStatus;
+import com.example.ProductService.enums.TransitionResult;
+import com.example.ProductService.repository.OrderBatchRepository;
+import com.example.ProductService.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sipariş durum geçişlerini "WHERE id = ? AND status IN (önceki durumlar)" koşullu UPDATE'leriyle
+ * uygular; entity yüklenmez. Koşul tutmazsa sipariş zaten hedef durumdaysa tekrar (DUPLICATE),
+ * başka bir durumdaysa reddedilmiş geçiş (REJECTED) sayılır ve durum değiştirilmez.
+ */
+@Component
+@Slf4j
+public class OrderStateMachine {
+
+    private final OrderRepository orderRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final Map<OrderStatus, Map<TransitionResult, Counter>> counters = new EnumMap<>(OrderStatus.class);
+
+    public OrderStateMachine(OrderRepository orderRepository,
+                             OrderBatchRepository orderBatchRepository,
+                             MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderBatchRepository = orderBatchRepository;
+        for (OrderStatus target : OrderStatus.values()) {
+            Map<TransitionResult, Counter> byResult = new EnumMap<>(TransitionResult.class);
+            for (TransitionResult result : TransitionResult.values()) {
+                byResult.put(result, Counter.builder("order.status.transitions")
+                        .tag("target", target.name())
+                        .tag("result", result.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            counters.put(target, byResult);
+        }
+    }
+
+    /**
+     * Sipariş yoksa RuntimeException fırlatır; listener'lardaki önceki davranışla aynı şekilde event tekrar denenir.
+     */
+    public TransitionResult transition(Long orderId, OrderStatus target) {
+        if (orderRepository.transition(orderId, target, target.predecessors()) == 1) {
+            return record(target, TransitionResult.APPLIED);
+        }
+        OrderStatus current = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new RuntimeException("Sipariş bulunamadı: " + orderId));
+        return classify(orderId, current, target);
+    }
+
+    /**
+     * Hedef durum başına tek koşullu UPDATE çalıştırır ve uygulanan sipariş id'lerini döner.
+     * Uygulanmayanlar tek sorguyla okunup sınıflandırılır; bulunamayanlar atlanır.
+     */
+    public List<Long> transitionAll(Map<OrderStatus, List<Long>> idsByTarget) {
+        List<Long> applied = orderBatchRepository.transitionAll(idsByTarget);
+        Set<Long> appliedIds = new HashSet<>(applied);
+        idsByTarget.forEach((target, ids) -> {
+            List<Long> skipped = ids.stream().filter(id -> !appliedIds.contains(id)).toList();
+            ids.stream().filter(appliedIds::contains).forEach(id -> record(target, TransitionResult.APPLIED));
+            if (!skipped.isEmpty()) {
+                orderBatchRepository.findStatuses(skipped)
+                        .forEach((orderId, current) -> classify(orderId, current, target));
+            }
+        });
+        return applied;
+    }
+
+    private TransitionResult classify(Long orderId, OrderStatus current, OrderStatus target) {
+        if (current == target) {
+            return record(target, TransitionResult.DUPLICATE);
+        }
+        log.warn("Sipariş durum geçişi reddedildi: orderId={}, mevcut={}, hedef={}", orderId, current, target);
+        return record(target, TransitionResult.REJECTED);
+    }
+
+    private TransitionResult record(OrderStatus target, TransitionResult result) {
+        counters.get(target).get(result).increment();
+        return result;
+    }
+}
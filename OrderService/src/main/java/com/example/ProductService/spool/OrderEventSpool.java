@@ -0,0 +1,174 @@
+package com.example.ProductService.spool;
+
+import com.example.ProductService.event.OrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sipariş event'lerini Kafka'ya doğrudan değil, yerel bir SpoolLog üzerinden gönderir. Broker yavaş
+ * ya da erişilemezken istek thread'i max.block.ms kadar beklemez; event diske yazıldığı an döner.
+ * Ayrı bir drainer thread'i kayıtları yazıldıkları sırayla gönderir ve yalnızca broker'ın onayladığı
+ * kısmı commit eder, hata durumunda artan aralıklarla yeniden dener. Gönderim en az bir kez
+ * garantilidir: onay kaybolan kayıtlar tekrar gönderilebilir.
+ * order.spool.enabled=false iken event'ler eskisi gibi doğrudan KafkaTemplate ile gönderilir.
+ */
+@Component
+@Slf4j
+public class OrderEventSpool {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int drainBatchSize;
+    private final long sendTimeoutMs;
+    private final long retryBackoffMs;
+    private final long maxBackoffMs;
+    private final SpoolLog spoolLog;
+    private final Thread drainer;
+    private final Counter appended;
+    private final Counter drained;
+    private final Counter sendFailures;
+    private volatile boolean running = true;
+
+    public OrderEventSpool(KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${order.spool.enabled:false}") boolean enabled,
+                           @Value("${order.spool.dir:spool/order-events}") String dir,
+                           @Value("${order.spool.segment-bytes:67108864}") int segmentBytes,
+                           @Value("${order.spool.fsync:false}") boolean fsync,
+                           @Value("${order.spool.drain-batch-size:500}") int drainBatchSize,
+                           @Value("${order.spool.send-timeout-ms:10000}") long sendTimeoutMs,
+                           @Value("${order.spool.retry-backoff-ms:500}") long retryBackoffMs,
+                           @Value("${order.spool.max-backoff-ms:30000}") long maxBackoffMs) throws IOException {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.drainBatchSize = drainBatchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.appended = Counter.builder("order.spool.appended").register(meterRegistry);
+        this.drained = Counter.builder("order.spool.drained").register(meterRegistry);
+        this.sendFailures = Counter.builder("order.spool.send.failures").register(meterRegistry);
+        if (!enabled) {
+            this.spoolLog = null;
+            this.drainer = null;
+            return;
+        }
+        this.spoolLog = new SpoolLog(Path.of(dir), segmentBytes, fsync);
+        Gauge.builder("order.spool.depth", spoolLog, SpoolLog::depth).register(meterRegistry);
+        Gauge.builder("order.spool.segments", spoolLog, SpoolLog::segments).register(meterRegistry);
+        Gauge.builder("order.spool.corrupted", spoolLog, SpoolLog::corrupted).register(meterRegistry);
+        this.drainer = Thread.ofPlatform().name("order-spool-drainer").daemon().start(this::drainLoop);
+    }
+
+    /**
+     * Spool açıkken dönen future event diske yazıldığında tamamlanmış olur; Kafka onayı beklenmez.
+     * Spool kapalıyken KafkaTemplate'in gönderim future'ı döner.
+     */
+    public CompletableFuture<?> publish(String topic, OrderEvent event) {
+        if (!enabled) {
+            return kafkaTemplate.send(topic, event);
+        }
+        try {
+            spoolLog.append(topic, objectMapper.writeValueAsBytes(event));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Event spool'a yazılamadı: orderId=" + event.orderId(), e);
+        }
+        appended.increment();
+        LockSupport.unpark(drainer);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void drainLoop() {
+        long backoffMs = retryBackoffMs;
+        while (running) {
+            try {
+                List<SpoolLog.Entry> batch = spoolLog.read(drainBatchSize);
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                int sent = ship(batch);
+                if (sent > 0) {
+                    spoolLog.commit(batch.get(sent - 1), sent);
+                    drained.increment(sent);
+                }
+                if (sent == batch.size()) {
+                    backoffMs = retryBackoffMs;
+                    continue;
+                }
+                spoolLog.rewind();
+                log.warn("Spool'daki event'ler gönderilemedi, {} ms sonra tekrar denenecek: bekleyen={}",
+                        backoffMs, spoolLog.depth());
+            } catch (IOException | RuntimeException e) {
+                log.error("Spool okunamadı, {} ms sonra tekrar denenecek", backoffMs, e);
+                spoolLog.rewind();
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoffMs));
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+        }
+    }
+
+    /**
+     * Kayıtları sırayla gönderir ve baştan itibaren kesintisiz onaylanan kayıt sayısını döner.
+     */
+    private int ship(List<SpoolLog.Entry> batch) throws IOException {
+        List<CompletableFuture<SendResult<String, OrderEvent>>> sends = new ArrayList<>(batch.size());
+        for (SpoolLog.Entry entry : batch) {
+            OrderEvent event = objectMapper.readValue(entry.value(), OrderEvent.class);
+            try {
+                sends.add(kafkaTemplate.send(entry.topic(), event));
+            } catch (RuntimeException e) {
+                sendFailures.increment();
+                log.warn("Spool event'i Kafka'ya verilemedi: orderId={}", event.orderId(), e);
+                break;
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            } catch (Exception e) {
+                sendFailures.increment();
+                log.warn("Spool event'i onaylanmadı: topic={}", batch.get(i).topic(), e);
+                return i;
+            }
+        }
+        return sends.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(sendTimeoutMs);
+        spoolLog.close();
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.ProductService.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Bellek eşlemeli, sabit boyutlu segment dosyalarından oluşan append-only kayıt günlüğü.
+ * Her kayıt [uzunluk][CRC32C][topic uzunluğu][topic][değer] biçimindedir; uzunluk en son yazıldığı
+ * için yarım kalmış bir kayıt okuyucuya 0 uzunluk ya da tutmayan CRC olarak görünür ve günlüğün
+ * sonu sayılır. Tek yazar ve tek okuyucu varsayılır: okuyucu yalnızca yazarın yayınladığı konuma
+ * kadar okur, onaylanan konum checkpoint dosyasına yazılır ve tamamen onaylanmış segmentler silinir.
+ */
+@Slf4j
+final class SpoolLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int END = -1;
+    private static final int CORRUPT = -2;
+
+    record Entry(String topic, byte[] value, long segment, int nextOffset) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final MappedByteBuffer checkpoint;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong corrupted = new AtomicLong();
+
+    private long writeSegment;
+    private int writeOffset;
+    private MappedByteBuffer writeBuffer;
+    private volatile long published;
+
+    private long readSegment;
+    private int readOffset;
+    private MappedByteBuffer readBuffer;
+    private volatile long committedSegment;
+    private int committedOffset;
+
+    SpoolLog(Path dir, int segmentBytes, boolean fsync) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("Segment boyutu en az 1024 byte olmalı: " + segmentBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        this.checkpoint = map(dir.resolve(CHECKPOINT_FILE), 2 * Long.BYTES);
+        recover();
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments = listSegments();
+        long startSegment = checkpoint.getLong(0);
+        int startOffset = (int) checkpoint.getLong(Long.BYTES);
+        if (segments.isEmpty() || segments.get(0) > startSegment) {
+            startSegment = segments.isEmpty() ? startSegment : segments.get(0);
+            startOffset = 0;
+        }
+        for (long segment : segments) {
+            if (segment < startSegment) {
+                Files.delete(segmentPath(segment));
+            }
+        }
+        long lastSegment = segments.isEmpty() ? startSegment : Math.max(startSegment, segments.get(segments.size() - 1));
+
+        int offset = startOffset;
+        for (long segment = startSegment; segment <= lastSegment; segment++) {
+            MappedByteBuffer buffer = map(segmentPath(segment), segmentBytes);
+            offset = segment == startSegment ? startOffset : 0;
+            int next;
+            while ((next = nextRecord(buffer, offset)) >= 0) {
+                depth.incrementAndGet();
+                offset = next;
+            }
+            if (segment == lastSegment) {
+                if (next == CORRUPT) {
+                    log.warn("Spool segmentinin sonunda yarım kayıt bulundu, temizleniyor: segment={}, offset={}", segment, offset);
+                    zeroFrom(buffer, offset);
+                }
+                writeBuffer = buffer;
+            }
+        }
+        writeSegment = lastSegment;
+        writeOffset = offset;
+        published = position(writeSegment, writeOffset);
+        readSegment = startSegment;
+        readOffset = startOffset;
+        committedSegment = startSegment;
+        committedOffset = startOffset;
+        if (depth.get() > 0) {
+            log.info("Spool'da gönderilmemiş kayıtlar bulundu: kayıt={}, segment={}", depth.get(), lastSegment - startSegment + 1);
+        }
+    }
+
+    synchronized void append(String topic, byte[] value) throws IOException {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        int length = Short.BYTES + topicBytes.length + value.length;
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("Kayıt segment boyutunu aşıyor: " + length);
+        }
+        if (writeOffset + HEADER_BYTES + length > segmentBytes) {
+            writeBuffer = map(segmentPath(writeSegment + 1), segmentBytes);
+            writeSegment++;
+            writeOffset = 0;
+        }
+        int payload = writeOffset + HEADER_BYTES;
+        writeBuffer.putShort(payload, (short) topicBytes.length);
+        writeBuffer.put(payload + Short.BYTES, topicBytes);
+        writeBuffer.put(payload + Short.BYTES + topicBytes.length, value);
+        CRC32C crc = new CRC32C();
+        crc.update(writeBuffer.slice(payload, length));
+        writeBuffer.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+        writeBuffer.putInt(writeOffset, length);
+        if (fsync) {
+            writeBuffer.force(writeOffset, HEADER_BYTES + length);
+        }
+        writeOffset += HEADER_BYTES + length;
+        depth.incrementAndGet();
+        published = position(writeSegment, writeOffset);
+    }
+
+    /**
+     * Son onaydan sonra okunanların devamından en fazla max kayıt döner; okuma konumu ilerler
+     * ama onay konumu ancak commit ile değişir.
+     */
+    List<Entry> read(int max) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        while (entries.size() < max) {
+            long head = published;
+            long headSegment = head >>> 32;
+            int limit = readSegment == headSegment ? (int) head : segmentBytes;
+            if (readBuffer == null) {
+                readBuffer = map(segmentPath(readSegment), segmentBytes);
+            }
+            int next = readOffset < limit ? nextRecord(readBuffer, readOffset) : END;
+            if (next == CORRUPT) {
+                skipCorruptSegment(entries.size());
+                if (readSegment > headSegment) {
+                    break;
+                }
+                continue;
+            }
+            if (next == END) {
+                if (readSegment == headSegment) {
+                    break;
+                }
+                readSegment++;
+                readOffset = 0;
+                readBuffer = null;
+                continue;
+            }
+            entries.add(decode(readBuffer, readOffset, next));
+            readOffset = next;
+        }
+        return entries;
+    }
+
+    void commit(Entry last, int count) throws IOException {
+        checkpoint.putLong(0, last.segment());
+        checkpoint.putLong(Long.BYTES, last.nextOffset());
+        if (fsync) {
+            checkpoint.force();
+        }
+        depth.addAndGet(-count);
+        for (long segment = committedSegment; segment < last.segment(); segment++) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        committedSegment = last.segment();
+        committedOffset = last.nextOffset();
+    }
+
+    /**
+     * Okuma konumunu son onaya geri alır; gönderilemeyen kayıtlar bir sonraki okumada tekrar döner.
+     */
+    void rewind() {
+        readSegment = committedSegment;
+        readOffset = committedOffset;
+        readBuffer = null;
+    }
+
+    long depth() {
+        return depth.get();
+    }
+
+    long segments() {
+        return (published >>> 32) - committedSegment + 1;
+    }
+
+    long corrupted() {
+        return corrupted.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        writeBuffer.force();
+        checkpoint.force();
+    }
+
+    private void skipCorruptSegment(int pendingInBatch) throws IOException {
+        corrupted.incrementAndGet();
+        log.error("Spool kaydının CRC'si tutmadı, segmentin kalanı atlanıyor: segment={}, offset={}", readSegment, readOffset);
+        synchronized (this) {
+            if (readSegment == writeSegment) {
+                zeroFrom(writeBuffer, readOffset);
+                writeSegment++;
+                writeBuffer = map(segmentPath(writeSegment), segmentBytes);
+                writeOffset = 0;
+                published = position(writeSegment, writeOffset);
+            }
+            readSegment++;
+            readOffset = 0;
+            readBuffer = null;
+            depth.set(pendingInBatch + countFrom(readSegment));
+        }
+    }
+
+    private long countFrom(long fromSegment) throws IOException {
+        long count = 0;
+        for (long segment = fromSegment; segment <= writeSegment; segment++) {
+            MappedByteBuffer buffer = segment == writeSegment ? writeBuffer : map(segmentPath(segment), segmentBytes);
+            int offset = 0;
+            int next;
+            while ((next = nextRecord(buffer, offset)) >= 0) {
+                count++;
+                offset = next;
+            }
+        }
+        return count;
+    }
+
+    private int nextRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > segmentBytes) {
+            return END;
+        }
+        int length = buffer.getInt(offset);
+        if (length == 0) {
+            return END;
+        }
+        if (length < Short.BYTES || offset + HEADER_BYTES + length > segmentBytes) {
+            return CORRUPT;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return CORRUPT;
+        }
+        return offset + HEADER_BYTES + length;
+    }
+
+    private Entry decode(MappedByteBuffer buffer, int offset, int next) {
+        int payload = offset + HEADER_BYTES;
+        byte[] topic = new byte[buffer.getShort(payload)];
+        buffer.get(payload + Short.BYTES, topic);
+        byte[] value = new byte[next - payload - Short.BYTES - topic.length];
+        buffer.get(payload + Short.BYTES + topic.length, value);
+        return new Entry(new String(topic, StandardCharsets.UTF_8), value, readSegment, next);
+    }
+
+    private void zeroFrom(MappedByteBuffer buffer, int offset) {
+        for (int i = offset; i < segmentBytes; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static long position(long segment, int offset) {
+        return segment << 32 | offset;
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
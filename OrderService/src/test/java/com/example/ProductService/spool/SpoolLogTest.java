@@ -0,0 +1,106 @@
+package com.example.ProductService.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpoolLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsRecordsInOrderAcrossSegmentsAndDeletesCommittedOnes() throws IOException {
+        SpoolLog spool = new SpoolLog(dir, 1024, false);
+        for (int i = 0; i < 40; i++) {
+            spool.append("order-placed", value(i));
+        }
+        assertThat(spool.segments()).isGreaterThan(1);
+
+        List<SpoolLog.Entry> entries = spool.read(100);
+
+        assertThat(entries).hasSize(40);
+        for (int i = 0; i < 40; i++) {
+            assertThat(entries.get(i).topic()).isEqualTo("order-placed");
+            assertThat(new String(entries.get(i).value(), StandardCharsets.UTF_8)).isEqualTo(text(i));
+        }
+        spool.commit(entries.get(39), 40);
+        assertThat(spool.depth()).isZero();
+        assertThat(spool.segments()).isEqualTo(1);
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void rewindReturnsUncommittedRecordsAgain() throws IOException {
+        SpoolLog spool = new SpoolLog(dir, 4096, false);
+        for (int i = 0; i < 5; i++) {
+            spool.append("order-placed", value(i));
+        }
+
+        List<SpoolLog.Entry> first = spool.read(3);
+        spool.commit(first.get(1), 2);
+        spool.rewind();
+        List<SpoolLog.Entry> second = spool.read(10);
+
+        assertThat(second).extracting(entry -> new String(entry.value(), StandardCharsets.UTF_8))
+                .containsExactly(text(2), text(3), text(4));
+        assertThat(spool.depth()).isEqualTo(3);
+    }
+
+    @Test
+    void reopenResumesFromCheckpointAndDropsTornTail() throws IOException {
+        SpoolLog spool = new SpoolLog(dir, 4096, false);
+        for (int i = 0; i < 4; i++) {
+            spool.append("order-placed", value(i));
+        }
+        spool.commit(spool.read(1).get(0), 1);
+        spool.close();
+        Path segment = segmentFiles().get(0);
+        long tail = tailOffset(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(50).putInt(12345).flip(), tail);
+        }
+
+        SpoolLog reopened = new SpoolLog(dir, 4096, false);
+
+        assertThat(reopened.depth()).isEqualTo(3);
+        reopened.append("order-placed", value(4));
+        assertThat(reopened.read(10)).extracting(entry -> new String(entry.value(), StandardCharsets.UTF_8))
+                .containsExactly(text(1), text(2), text(3), text(4));
+        assertThat(reopened.corrupted()).isZero();
+    }
+
+    private long tailOffset(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int offset = 0;
+        while (buffer.getInt(offset) != 0) {
+            offset += 8 + buffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).toList();
+        }
+    }
+
+    private static byte[] value(int i) {
+        return text(i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(int i) {
+        return "{\"orderId\":" + i + ",\"customerEmail\":\"musteri" + i + "@example.com\"}";
+    }
+}
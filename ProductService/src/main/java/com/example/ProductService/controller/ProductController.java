@@ -1,6 +1,7 @@
 package com.example.ProductService.controller;
 
 import com.example.ProductService.dto.ProductRequest;
+import com.example.ProductService.dto.ProductResponse;
 import com.example.ProductService.entity.Product;
 import com.example.ProductService.service.ProductService;
 import lombok.extern.slf4j.Slf4j;
@@ -22,12 +23,12 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<ProductResponse>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable("id") Long id) {
         return productService.getProductById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
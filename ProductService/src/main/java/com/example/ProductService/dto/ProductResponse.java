@@ -0,0 +1,15 @@
+package com.example.ProductService.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Ürün ve yerel stok görünümünden gelen kullanılabilir miktar; seviye henüz bilinmiyorsa available null'dır.
+ */
+public record ProductResponse(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer available,
+        Boolean inStock
+) {}
@@ -0,0 +1,50 @@
+package com.example.ProductService.listener;
+
+import com.example.ProductService.event.InventoryLevelEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InventoryService'in yayınladığı inventory-levels topic'inden yerel stok görünümünü tutar.
+ * Her instance tüm partition'ları consumer group olmadan elle atar ve topic'i baştan okur;
+ * compacted topic her ürün için son seviyeyi içerdiğinden görünüm açılışta yeniden kurulur.
+ * Partition sayısı InventoryService'teki inventory-levels topic'iyle aynı olmalıdır.
+ */
+@Component
+@Slf4j
+public class InventoryLevelListener implements ConsumerSeekAware {
+
+    private final Map<Long, Integer> levels = new ConcurrentHashMap<>();
+
+    @KafkaListener(topicPartitions = @org.springframework.kafka.annotation.TopicPartition(topic = "inventory-levels",
+            partitions = "0-#{${product.inventory-levels.partitions:3} - 1}"),
+            containerFactory = "inventoryLevelKafkaListenerContainerFactory")
+    public void handleInventoryLevel(ConsumerRecord<String, InventoryLevelEvent> record) {
+        InventoryLevelEvent event = record.value();
+        if (event == null) {
+            levels.remove(Long.valueOf(record.key()));
+            return;
+        }
+        levels.put(event.productId(), event.available());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+        log.info("Stok seviyeleri baştan okunuyor: partition sayısı={}", assignments.size());
+    }
+
+    /**
+     * Ürünün bilinen kullanılabilir stoğu; seviye henüz gelmediyse null.
+     */
+    public Integer available(Long productId) {
+        return levels.get(productId);
+    }
+}
@@ -3,7 +3,9 @@ package com.example.ProductService.service;
 import com.example.ProductService.client.InventoryClient;
 import com.example.ProductService.dto.InventoryRequest;
 import com.example.ProductService.dto.ProductRequest;
+import com.example.ProductService.dto.ProductResponse;
 import com.example.ProductService.entity.Product;
+import com.example.ProductService.listener.InventoryLevelListener;
 import com.example.ProductService.repository.ProductRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,18 +20,38 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final InventoryClient inventoryClient;
+    private final InventoryLevelListener inventoryLevels;
 
-    public ProductService(ProductRepository productRepository, InventoryClient inventoryClient) {
+    public ProductService(ProductRepository productRepository, InventoryClient inventoryClient,
+                          InventoryLevelListener inventoryLevels) {
         this.productRepository = productRepository;
         this.inventoryClient = inventoryClient;
+        this.inventoryLevels = inventoryLevels;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    /**
+     * Ürünleri yerel stok görünümüyle birlikte döner; inventory servisine senkron çağrı yapılmaz.
+     */
+    public List<ProductResponse> getAllProducts() {
+        return productRepository.findAll().stream()
+                .map(this::toProductResponse)
+                .toList();
     }
 
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    public Optional<ProductResponse> getProductById(Long id) {
+        return productRepository.findById(id).map(this::toProductResponse);
+    }
+
+    private ProductResponse toProductResponse(Product product) {
+        Integer available = inventoryLevels.available(product.getId());
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                available,
+                available == null ? null : available > 0
+        );
     }
 
     @Transactional
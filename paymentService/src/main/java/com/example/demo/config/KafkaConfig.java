@@ -3,6 +3,7 @@ package com.example.demo.config;
 import com.example.demo.event.PaymentConfirmedEvent;
 import com.example.demo.event.PaymentFailedEvent;
 import com.example.demo.event.StockReservedEvent;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -24,23 +25,36 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * payment-group'un dinlediği saga topic'leri tek bir consumer ile okunur; değer tipi kaydın
+     * geldiği topic'e göre seçilir. Yeni bir topic için buraya tip, listener'a @KafkaHandler eklenir.
+     */
+    static final Map<String, Class<?>> SAGA_TOPIC_TYPES = Map.of(
+            "stock-reserved", StockReservedEvent.class);
+
     @Bean
-    public ConsumerFactory<String, StockReservedEvent> stockReservedConsumerFactory() {
+    public ConsumerFactory<String, Object> sagaConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-group");
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.example.demo.event.StockReservedEvent");
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        JsonDeserializer<Object> valueDeserializer = new JsonDeserializer<>();
+        valueDeserializer.setUseTypeHeaders(false);
+        valueDeserializer.setTypeResolver((topic, data, headers) -> {
+            Class<?> type = SAGA_TOPIC_TYPES.get(topic);
+            if (type == null) {
+                throw new IllegalStateException("Topic için event tipi tanımlı değil: " + topic);
+            }
+            return TypeFactory.defaultInstance().constructType(type);
+        });
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), valueDeserializer);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, StockReservedEvent> stockReservedKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, StockReservedEvent> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, Object> sagaKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(stockReservedConsumerFactory());
+        factory.setConsumerFactory(sagaConsumerFactory());
         return factory;
     }
 
@@ -9,6 +9,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "payments", indexes = {
@@ -29,6 +31,11 @@ public class Payment {
     private Long productId;
     private Integer quantity;
 
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "payment_items", joinColumns = @JoinColumn(name = "payment_id"))
+    @OrderColumn(name = "line_no")
+    private List<PaymentLine> items = new ArrayList<>();
+
     @Column(nullable = false)
     private BigDecimal amount;
 
@@ -187,4 +194,12 @@ public class Payment {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+
+    public List<PaymentLine> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PaymentLine> items) {
+        this.items = items;
+    }
 }
\ No newline at end of file
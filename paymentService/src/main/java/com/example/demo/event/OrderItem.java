@@ -0,0 +1,6 @@
+package com.example.demo.event;
+
+public record OrderItem(
+           Long productId,
+           Integer quantity
+) {}
@@ -1,12 +1,14 @@
 package com.example.demo.event ;
 
+import java.util.List;
+
 public record PaymentFailedEvent (
            Long orderId ,
            Long productId ,
            Integer quantity ,
            String paymentId ,
-           String reason
+           String reason ,
+           List<OrderItem> items
 ){ }
 
     
-    
\ No newline at end of file
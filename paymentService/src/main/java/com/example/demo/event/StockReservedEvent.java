@@ -1,6 +1,7 @@
 package com.example.demo.event ;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 public record StockReservedEvent(
@@ -8,6 +9,7 @@ public record StockReservedEvent(
            Long productId ,
            Integer quantity,
            BigDecimal totalPrice,
-           String customerEmail
+           String customerEmail,
+           List<OrderItem> items
 
-) {}
\ No newline at end of file
+) {}
@@ -5,12 +5,15 @@ import com.example.demo.event.StockReservedEvent;
 import com.example.demo.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 
 @Component
+@KafkaListener(id = "paymentSaga", topics = {"stock-reserved"}, groupId = "payment-group",
+        containerFactory = "sagaKafkaListenerContainerFactory")
 public class OrderEventListener {
 
     private static final Logger log = LoggerFactory.getLogger(OrderEventListener.class);
@@ -21,7 +24,7 @@ public class OrderEventListener {
         this.paymentService = paymentService;
     }
 
-    @KafkaListener(topics = "stock-reserved", groupId = "payment-group", containerFactory = "stockReservedKafkaListenerContainerFactory")
+    @KafkaHandler
     public void handleStockReserved(StockReservedEvent stockReservedEvent) {
         log.info("Stock reserved event alındı: orderId={}, productId={}, quantity={}, totalPrice={}, customerEmail={}",
                 stockReservedEvent.orderId(), stockReservedEvent.productId(), stockReservedEvent.quantity(),
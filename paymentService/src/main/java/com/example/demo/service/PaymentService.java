@@ -12,8 +12,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.dto.PaymentResponse;
 import com.example.demo.entity.Payment;
+import com.example.demo.entity.PaymentLine;
 import com.example.demo.enums.PaymentMethod;
 import com.example.demo.enums.PaymentStatus;
+import com.example.demo.event.OrderItem;
 import com.example.demo.event.PaymentConfirmedEvent;
 import com.example.demo.event.PaymentFailedEvent;
 import com.example.demo.event.StockReservedEvent;
@@ -48,6 +50,10 @@ public class PaymentService {
         payment.setStatus(PaymentStatus.PENDING);
         payment.setProductId(stockReservedEvent.productId());
         payment.setQuantity(stockReservedEvent.quantity());
+        if (stockReservedEvent.items() != null) {
+            stockReservedEvent.items().forEach(item ->
+                    payment.getItems().add(new PaymentLine(item.productId(), item.quantity())));
+        }
         payment.setRetryCount(0);
         payment.setExternalTransactionId(UUID.randomUUID().toString());
         Payment savedPayment = paymentRepository.save(payment);
@@ -91,13 +97,20 @@ public class PaymentService {
         } else {
             String failureReason = payment.getFailureReason() != null ? payment.getFailureReason() : "Ödeme işlemi başarısız oldu";
 
-            if (payment.getProductId() != null && payment.getQuantity() != null) {
+            boolean hasLines = !payment.getItems().isEmpty();
+            if (hasLines || (payment.getProductId() != null && payment.getQuantity() != null)) {
+                List<OrderItem> items = hasLines
+                        ? payment.getItems().stream()
+                                .map(line -> new OrderItem(line.getProductId(), line.getQuantity()))
+                                .collect(Collectors.toList())
+                        : null;
                 PaymentFailedEvent paymentFailedEvent = new PaymentFailedEvent(
                         orderId,
                         payment.getProductId(),
                         payment.getQuantity(),
                         payment.getId(),
-                        failureReason
+                        failureReason,
+                        items
                 );
 
                 paymentFailedKafkaTemplate.send("payment-failed", paymentFailedEvent);